@@ -0,0 +1,68 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+import utils.ElementActions;
+import utils.EvidenceService;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Benchmarks {@link ElementActions} against the fake driver: click, sendKeys and a failing click,
+ * which goes through attachFailure (Extent log plus queued screenshot).
+ * <p>
+ * The failure benchmark runs with evidence.queue.policy=drop, so it measures the work done on the
+ * scenario thread rather than disk speed; the screenshots it does write are deleted afterwards.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class ElementActionsBenchmark extends FakeDriverBenchmark {
+
+    private static final By BUTTON = By.id("login-button");
+    private static final By FIELD = By.id("user-name");
+    private static final By MISSING_BUTTON = By.id(FakeWebDriver.MISSING + "-button");
+
+    @Benchmark
+    public void click(RoundTrips roundTrips) {
+        ElementActions.click(driver, BUTTON);
+        roundTrips.count(this);
+    }
+
+    @Benchmark
+    public void sendKeys(RoundTrips roundTrips) {
+        ElementActions.sendKeys(driver, FIELD, "standard_user");
+        roundTrips.count(this);
+    }
+
+    @Benchmark
+    public Object clickFailureWithEvidence(RoundTrips roundTrips) {
+        try {
+            ElementActions.click(driver, MISSING_BUTTON);
+            return null;
+        } catch (RuntimeException expected) {
+            return expected;
+        } finally {
+            roundTrips.count(this);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteScreenshots() throws IOException {
+        EvidenceService.flush(30_000);
+        Path dir = Paths.get("extent-reports", "screenshots");
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "click_By.id__" + FakeWebDriver.MISSING + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
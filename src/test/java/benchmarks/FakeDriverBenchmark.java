@@ -0,0 +1,152 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import utils.DriverFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base state of the JMH benchmarks: binds a {@link FakeWebDriver} to the benchmark thread through
+ * {@link DriverFactory#bindDriver(WebDriver)}, so the framework code under test runs with the same
+ * listeners (navigation tracking, command metrics) as in a real scenario.
+ * <p>
+ * Results report throughput; {@code -prof gc} (enabled by the benchmarks profile) adds allocation
+ * per operation ({@code gc.alloc.rate.norm}) and {@link RoundTrips} adds WebDriver commands per
+ * operation. Benchmarks run with and without simulated per-command latency.
+ * <p>
+ * Before binding, each trial checks what the listeners add to a command: a findElement plus click
+ * is timed on the bare fake and on the bound one, and the benchmark fails when the difference
+ * exceeds {@code benchmark.max.overhead.micros} per command (default: 20). A listener change
+ * that makes every command expensive therefore fails the run instead of only showing up in the
+ * numbers.
+ *
+ * @author NiteshJainQaTestology
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Devidence.queue.policy=drop", "-Ddriver.pool.enabled=false"})
+public abstract class FakeDriverBenchmark {
+
+    private static final double MAX_OVERHEAD_MICROS =
+            Double.parseDouble(System.getProperty("benchmark.max.overhead.micros", "20"));
+
+    private static final By PROBE = By.id("overhead-probe");
+
+    // time spent per measurement of the overhead check
+    private static final long PROBE_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+
+    @Param({"0", "250"})
+    public long latencyMicros;
+
+    protected FakeWebDriver fake;
+    protected WebDriver driver;
+
+    @Setup(Level.Trial)
+    public void bindFakeDriver() {
+        checkListenerOverhead();
+        fake = new FakeWebDriver(latencyMicros, productCount());
+        driver = DriverFactory.bindDriver(fake);
+        bound();
+    }
+
+    @TearDown(Level.Trial)
+    public void releaseFakeDriver() {
+        DriverFactory.releaseDriver(true);
+    }
+
+    /**
+     * Fails the trial when the listeners of a bound driver add more than
+     * {@code benchmark.max.overhead.micros} to each command.
+     */
+    private static void checkListenerOverhead() {
+        FakeWebDriver bare = new FakeWebDriver(0, 1);
+        WebDriver bound = DriverFactory.bindDriver(new FakeWebDriver(0, 1));
+        try {
+            // first pass warms both paths up, second one is measured
+            nanosPerCommand(bare);
+            nanosPerCommand(bound);
+            double overheadMicros = (nanosPerCommand(bound) - nanosPerCommand(bare)) / 1_000;
+            if (overheadMicros > MAX_OVERHEAD_MICROS) {
+                throw new IllegalStateException(String.format(
+                        "Driver listeners add %.1f us per command (limit %.1f us, benchmark.max.overhead.micros)",
+                        overheadMicros, MAX_OVERHEAD_MICROS));
+            }
+        } finally {
+            DriverFactory.releaseDriver(true);
+        }
+    }
+
+    private static double nanosPerCommand(WebDriver webDriver) {
+        long start = System.nanoTime();
+        long end = start + PROBE_NANOS;
+        long commands = 0;
+        long now;
+        do {
+            webDriver.findElement(PROBE).click();
+            commands += 2;
+            now = System.nanoTime();
+        } while (now < end);
+        return (double) (now - start) / commands;
+    }
+
+    /**
+     * Called once the driver is bound, to create page objects that need it.
+     */
+    protected void bound() {
+    }
+
+    /**
+     * Number of product cards the fake inventory returns.
+     */
+    protected int productCount() {
+        return 6;
+    }
+
+    /**
+     * Reports WebDriver round trips per benchmark operation, measured on the fake driver.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public double roundTripsPerOp;
+
+        private long operations;
+        private long roundTrips;
+        private long lastSeen;
+
+        /**
+         * Call once per benchmark operation, after the operation.
+         */
+        public void count(FakeDriverBenchmark benchmark) {
+            long seen = benchmark.fake.roundTrips();
+            roundTrips += seen - lastSeen;
+            lastSeen = seen;
+            roundTripsPerOp = (double) roundTrips / ++operations;
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            operations = 0;
+            roundTrips = 0;
+            roundTripsPerOp = 0;
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package benchmarks;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.logging.Logs;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory {@link WebDriver} for the JMH benchmarks. Every command is one simulated round trip:
+ * it is counted and, when configured, delayed by a fixed latency, so benchmarks can report
+ * round trips per operation and show how a change behaves on a slow or fast connection.
+ * <p>
+ * The fake knows just enough about the scripts the framework sends: the in-page wait
+ * (every locator is found unless its value contains {@code missing}), the inventory product
+ * script, document readiness and the form-fill script. Other scripts return null.
+ * <p>
+ * Navigation, window/frame switches, cookies and timeouts are accepted as no-op round trips, so
+ * framework code that reaches them (e.g. the in-page wait raising the script timeout) runs as it
+ * would against a browser.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class FakeWebDriver implements WebDriver, JavascriptExecutor, TakesScreenshot {
+
+    /** Locators whose value contains this marker are never found. */
+    public static final String MISSING = "missing";
+
+    // 1x1 transparent PNG
+    private static final byte[] PNG = Base64.getDecoder().decode(
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=");
+
+    private final long latencyNanos;
+    private final List<Map<String, Object>> products;
+    private final Map<String, Cookie> cookies = new LinkedHashMap<>();
+    private final FakeOptions options = new FakeOptions();
+    private long roundTrips;
+
+    /**
+     * @param latencyMicros simulated latency added to every command
+     * @param productCount  number of product cards returned by the inventory script
+     */
+    public FakeWebDriver(long latencyMicros, int productCount) {
+        this.latencyNanos = latencyMicros * 1_000;
+        this.products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Map<String, Object> product = new HashMap<>();
+            product.put("id", String.valueOf(i));
+            product.put("name", "Product " + i);
+            product.put("price", String.valueOf(5 + i % 50) + ".99");
+            product.put("buttonDataTest", "add-to-cart-product-" + i);
+            product.put("buttonId", "add-to-cart-product-" + i);
+            product.put("inCart", Boolean.FALSE);
+            products.add(product);
+        }
+    }
+
+    /**
+     * Number of commands executed so far.
+     */
+    public long roundTrips() {
+        return roundTrips;
+    }
+
+    private void roundTrip() {
+        roundTrips++;
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+    }
+
+    private FakeElement locate(By by) {
+        if (by.toString().contains(MISSING)) {
+            throw new NoSuchElementException("Fake element not found: " + by);
+        }
+        return new FakeElement(by.toString());
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        roundTrip();
+        if (script.contains("querySelectorAll('.inventory_item')")) {
+            return products;
+        }
+        if (script.contains("document.readyState")) {
+            return "complete";
+        }
+        if (script.contains("getOwnPropertyDescriptor")) {
+            return -1L;
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        roundTrip();
+        if (!script.contains("MutationObserver")) {
+            return null;
+        }
+        // in-page wait: [[strategy, value], ...], condition, timeout
+        String condition = String.valueOf(args[1]);
+        List<WebElement> found = new ArrayList<>();
+        for (Object locator : (List<?>) args[0]) {
+            String value = String.valueOf(((List<?>) locator).get(1));
+            boolean present = !value.contains(MISSING);
+            if ("invisible".equals(condition)) {
+                if (present) {
+                    return null;
+                }
+            } else if (present) {
+                found.add(new FakeElement(value));
+            } else {
+                // the real script waits for the timeout; the fake reports it right away
+                return null;
+            }
+        }
+        return "invisible".equals(condition) ? Boolean.TRUE : found;
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        roundTrip();
+        return target.convertFromPngBytes(PNG);
+    }
+
+    @Override
+    public void get(String url) {
+        roundTrip();
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        roundTrip();
+        return "http://localhost/";
+    }
+
+    @Override
+    public String getTitle() {
+        roundTrip();
+        return "Fake";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        roundTrip();
+        return by.toString().contains(MISSING) ? List.of() : List.of(new FakeElement(by.toString()));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        roundTrip();
+        return locate(by);
+    }
+
+    @Override
+    public String getPageSource() {
+        roundTrip();
+        return "<html></html>";
+    }
+
+    @Override
+    public void close() {
+        roundTrip();
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        roundTrip();
+        return Set.of("fake");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        roundTrip();
+        return "fake";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return new FakeTargetLocator();
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new FakeNavigation();
+    }
+
+    @Override
+    public Options manage() {
+        return options;
+    }
+
+    /**
+     * Single window without frames; every switch is a round trip that stays on it.
+     */
+    private final class FakeTargetLocator implements TargetLocator {
+
+        @Override
+        public WebDriver frame(int index) {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            roundTrip();
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            roundTrip();
+            return new FakeElement("active");
+        }
+
+        @Override
+        public Alert alert() {
+            roundTrip();
+            throw new NoAlertPresentException("The fake driver never shows alerts");
+        }
+    }
+
+    private final class FakeNavigation implements Navigation {
+
+        @Override
+        public void back() {
+            roundTrip();
+        }
+
+        @Override
+        public void forward() {
+            roundTrip();
+        }
+
+        @Override
+        public void to(String url) {
+            roundTrip();
+        }
+
+        @Override
+        public void to(URL url) {
+            roundTrip();
+        }
+
+        @Override
+        public void refresh() {
+            roundTrip();
+        }
+    }
+
+    /**
+     * Keeps cookies and timeouts in memory; the window accepts every command and stays put.
+     */
+    // Timeouts still declares the deprecated TimeUnit overloads abstract, so they must be implemented
+    @SuppressWarnings("deprecation")
+    private final class FakeOptions implements Options, Timeouts, Window {
+
+        private Duration implicitWait = Duration.ZERO;
+        private Duration scriptTimeout = Duration.ofSeconds(30);
+        private Duration pageLoadTimeout = Duration.ofMinutes(5);
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            roundTrip();
+            cookies.put(cookie.getName(), cookie);
+        }
+
+        @Override
+        public void deleteCookieNamed(String name) {
+            roundTrip();
+            cookies.remove(name);
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            deleteCookieNamed(cookie.getName());
+        }
+
+        @Override
+        public void deleteAllCookies() {
+            roundTrip();
+            cookies.clear();
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            roundTrip();
+            return new LinkedHashSet<>(cookies.values());
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name) {
+            roundTrip();
+            return cookies.get(name);
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            return this;
+        }
+
+        @Override
+        public Window window() {
+            return this;
+        }
+
+        @Override
+        public Logs logs() {
+            throw new UnsupportedOperationException("logs are not supported by the fake driver");
+        }
+
+        @Override
+        public Timeouts implicitlyWait(long time, TimeUnit unit) {
+            return implicitlyWait(Duration.ofNanos(unit.toNanos(time)));
+        }
+
+        @Override
+        public Timeouts implicitlyWait(Duration duration) {
+            roundTrip();
+            implicitWait = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getImplicitWaitTimeout() {
+            return implicitWait;
+        }
+
+        @Override
+        public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+            return scriptTimeout(Duration.ofNanos(unit.toNanos(time)));
+        }
+
+        @Override
+        public Timeouts scriptTimeout(Duration duration) {
+            roundTrip();
+            scriptTimeout = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getScriptTimeout() {
+            return scriptTimeout;
+        }
+
+        @Override
+        public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+            return pageLoadTimeout(Duration.ofNanos(unit.toNanos(time)));
+        }
+
+        @Override
+        public Timeouts pageLoadTimeout(Duration duration) {
+            roundTrip();
+            pageLoadTimeout = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getPageLoadTimeout() {
+            return pageLoadTimeout;
+        }
+
+        @Override
+        public Dimension getSize() {
+            roundTrip();
+            return new Dimension(1920, 1080);
+        }
+
+        @Override
+        public void setSize(Dimension targetSize) {
+            roundTrip();
+        }
+
+        @Override
+        public Point getPosition() {
+            roundTrip();
+            return new Point(0, 0);
+        }
+
+        @Override
+        public void setPosition(Point targetPosition) {
+            roundTrip();
+        }
+
+        @Override
+        public void maximize() {
+            roundTrip();
+        }
+
+        @Override
+        public void minimize() {
+            roundTrip();
+        }
+
+        @Override
+        public void fullscreen() {
+            roundTrip();
+        }
+    }
+
+    /**
+     * Visible, enabled element; every command is a round trip on the owning driver.
+     */
+    private final class FakeElement implements WebElement {
+
+        private final String locator;
+
+        private FakeElement(String locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void click() {
+            roundTrip();
+        }
+
+        @Override
+        public void submit() {
+            roundTrip();
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+            roundTrip();
+        }
+
+        @Override
+        public void clear() {
+            roundTrip();
+        }
+
+        @Override
+        public String getTagName() {
+            roundTrip();
+            return "input";
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            roundTrip();
+            return null;
+        }
+
+        @Override
+        public boolean isSelected() {
+            roundTrip();
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            roundTrip();
+            return true;
+        }
+
+        @Override
+        public String getText() {
+            roundTrip();
+            return locator;
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return FakeWebDriver.this.findElements(by);
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return FakeWebDriver.this.findElement(by);
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            roundTrip();
+            return true;
+        }
+
+        @Override
+        public Point getLocation() {
+            roundTrip();
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            roundTrip();
+            return new Dimension(100, 20);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            roundTrip();
+            return new Rectangle(0, 0, 20, 100);
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            roundTrip();
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            return FakeWebDriver.this.getScreenshotAs(target);
+        }
+
+        @Override
+        public String toString() {
+            return "FakeElement{" + locator + "}";
+        }
+    }
+}
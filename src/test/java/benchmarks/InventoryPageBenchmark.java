@@ -0,0 +1,46 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import pages.InventoryItem;
+import pages.InventoryPage;
+
+import java.util.List;
+
+/**
+ * Benchmarks product list extraction on {@link InventoryPage} (one script call plus mapping into
+ * {@link InventoryItem}s) for the real catalog size and a large generated one.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class InventoryPageBenchmark extends FakeDriverBenchmark {
+
+    @Param({"6", "500"})
+    public int products;
+
+    private InventoryPage inventoryPage;
+
+    @Override
+    protected int productCount() {
+        return products;
+    }
+
+    @Override
+    protected void bound() {
+        inventoryPage = new InventoryPage(driver);
+    }
+
+    @Benchmark
+    public List<InventoryItem> getProducts(RoundTrips roundTrips) {
+        List<InventoryItem> items = inventoryPage.getProducts();
+        roundTrips.count(this);
+        return items;
+    }
+
+    @Benchmark
+    public List<Double> getProductPrices(RoundTrips roundTrips) {
+        List<Double> prices = inventoryPage.getProductPrices();
+        roundTrips.count(this);
+        return prices;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import utils.WaitUtils;
+
+import java.util.List;
+
+/**
+ * Benchmarks the {@link WaitUtils} waits against the fake driver, with the default in-page
+ * (observer) engine. {@link WaitUtilsPollingBenchmark} runs the same waits with the polling engine.
+ * <p>
+ * Elements are present right away, so the numbers show the fixed cost of a wait: commands,
+ * listener overhead and allocation. pageLoadAfterClick measures a performed readyState wait,
+ * pageLoadRepeated one that is skipped because nothing navigated since the last one.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class WaitUtilsBenchmark extends FakeDriverBenchmark {
+
+    private static final By FIELD = By.id("user-name");
+    private static final List<By> FORM = List.of(By.id("first-name"), By.id("last-name"), By.id("postal-code"));
+
+    @Benchmark
+    public WebElement waitForVisible(RoundTrips roundTrips) {
+        WebElement element = WaitUtils.waitForVisible(driver, FIELD);
+        roundTrips.count(this);
+        return element;
+    }
+
+    @Benchmark
+    public WebElement waitForClickable(RoundTrips roundTrips) {
+        WebElement element = WaitUtils.waitForClickable(driver, FIELD);
+        roundTrips.count(this);
+        return element;
+    }
+
+    @Benchmark
+    public List<WebElement> waitForAllVisible(RoundTrips roundTrips) {
+        List<WebElement> elements = WaitUtils.waitForAllVisible(driver, FORM);
+        roundTrips.count(this);
+        return elements;
+    }
+
+    @Benchmark
+    public void pageLoadAfterClick(RoundTrips roundTrips) {
+        driver.findElement(FIELD).click();
+        WaitUtils.waitForPageLoad(driver);
+        roundTrips.count(this);
+    }
+
+    @Benchmark
+    public void pageLoadRepeated(RoundTrips roundTrips) {
+        WaitUtils.waitForPageLoad(driver);
+        roundTrips.count(this);
+    }
+}
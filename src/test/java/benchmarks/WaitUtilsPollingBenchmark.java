@@ -0,0 +1,13 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * The {@link WaitUtilsBenchmark} waits with the polling WebDriverWait engine (wait.engine=polling),
+ * for comparison with the in-page observer engine.
+ *
+ * @author NiteshJainQaTestology
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Dwait.engine=polling", "-Devidence.queue.policy=drop", "-Ddriver.pool.enabled=false"})
+public class WaitUtilsPollingBenchmark extends WaitUtilsBenchmark {
+}
@@ -1,23 +1,39 @@
 package hooks;
 
 import io.cucumber.java.After;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
+import io.cucumber.java.BeforeStep;
 import io.cucumber.java.Scenario;
-import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import utils.CartSeeder;
 import utils.DriverFactory;
+import utils.EvidenceService;
+import utils.HarRecorder;
+import utils.ParallelismController;
+import utils.PerformanceProbe;
+import utils.PrefixSnapshots;
+import utils.ScenarioContext;
+import utils.ScenarioDeadline;
+import utils.ScenarioScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * Global Cucumber hooks.
- * - @Before: initialize a WebDriver for the current scenario/thread
- * - @After: on failure, attach a screenshot to Cucumber and Extent; then quit driver
+ * - @Before: wait for a place under the {@link ParallelismController} limit; bind the scenario to
+ *   {@link ScenarioContext}; initialize (or lease) a WebDriver, start its {@link ScenarioDeadline}
+ *   budget and watch, and start recording its traffic when {@link HarRecorder} is enabled;
+ *   restore the state after a shared step prefix when {@link PrefixSnapshots} left the prefix
+ *   steps out of the scenario
+ * - @BeforeStep / @AfterStep: track the scenario's position in its prefix and snapshot the state
+ *   once the prefix has run
+ * - @After (first): attach page performance samples and, when budgets are enforced, fail the
+ *   scenario if a sampled page exceeded them
+ * - @After: log timed-out scenarios with their evidence; on failure, attach a screenshot to
+ *   Cucumber and Extent; link the HAR of failed or slow scenarios; then release the driver,
+ *   record the scenario duration for {@link ScenarioScheduler} and free the scenario's place
+ *   under the parallelism limit
  *
  * Screenshot paths are kept consistent with Extent's configuration so they appear in the report.
  *
@@ -26,44 +42,84 @@ import utils.DriverFactory;
 public class Hooks {
 
     /**
-     * Creates a browser session before each scenario.
+     * Waits until the parallelism limit lets the scenario run, binds it to the current thread,
+     * creates or leases a browser session and starts the scenario's HAR capture, then restores
+     * its prefix snapshot, if any.
      */
     @Before
-    public void setUp() {
+    public void setUp(Scenario scenario) {
+        ParallelismController.acquire();
+        ScenarioContext.start(scenario);
         DriverFactory.initDriver();
+        ScenarioDeadline.start(scenario.getName(), DriverFactory.getDriver());
+        HarRecorder.start(DriverFactory.getDriver(), scenario.getName());
+        PrefixSnapshots.restore(DriverFactory.getDriver(), scenario);
+    }
+
+    @BeforeStep
+    public void beforeStep() {
+        PrefixSnapshots.beforeStep();
+    }
+
+    @AfterStep
+    public void afterStep(Scenario scenario) {
+        PrefixSnapshots.afterStep(DriverFactory.getDriver(), scenario);
     }
 
     /**
-     * Tears down the browser after each scenario. On failure:
-     * - Attaches a PNG screenshot to the Cucumber report for traceability
-     * - Saves a file under extent-reports/screenshots and links it in Extent
+     * Logs the scenario's page performance samples and fails the scenario when
+     * {@link PerformanceProbe} budgets are enforced and exceeded. Runs before {@link #tearDown},
+     * so a budget failure gets the usual failure evidence.
+     */
+    @After(order = 20000)
+    public void checkPerformanceBudget(Scenario scenario) {
+        if (PerformanceProbe.scenarioSamples().isEmpty()) {
+            return;
+        }
+        scenario.log("Page performance:\n" + PerformanceProbe.describeScenario());
+        List<String> violations = PerformanceProbe.scenarioViolations();
+        if (PerformanceProbe.isEnforced() && !violations.isEmpty()) {
+            throw new AssertionError("Performance budget exceeded: " + violations);
+        }
+    }
+
+    /**
+     * Releases the browser after each scenario (failed sessions are never reused). A scenario
+     * that ran out of its {@link ScenarioDeadline} budget, or whose hung session was killed, is
+     * logged as timed out with the evidence collected at that moment. On failure a single
+     * screenshot is captured (unless the session was killed) and:
+     * - attached to the Cucumber report for traceability
+     * - queued to extent-reports/screenshots by {@link EvidenceService} and linked in Extent
      */
     @After
     public void tearDown(Scenario scenario) {
-        if (scenario.isFailed()) {
-            try {
-                // Attach to Cucumber for traceability
-                byte[] screenshot = ((TakesScreenshot) DriverFactory.getDriver()).getScreenshotAs(OutputType.BYTES);
+        if (ScenarioDeadline.timedOut()) {
+            scenario.log("Scenario timed out: " + ScenarioDeadline.reason());
+            scenario.attach(ScenarioDeadline.evidence().getBytes(StandardCharsets.UTF_8), "text/plain",
+                    "Timeout Evidence");
+        }
+        // a killed session cannot take screenshots any more
+        if (scenario.isFailed() && !ScenarioDeadline.sessionKilled()) {
+            byte[] screenshot = EvidenceService.capture(DriverFactory.getDriver());
+            if (screenshot != null) {
                 scenario.attach(screenshot, "image/png", "Failure Screenshot");
-
-                // Save screenshot file for Extent and add to report
-                File src = ((TakesScreenshot) DriverFactory.getDriver()).getScreenshotAs(OutputType.FILE);
-                String safeName = scenario.getName().replaceAll("[^a-zA-Z0-9-_\\.]", "_");
-                String timestamp = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS").format(LocalDateTime.now());
-                String fileName = safeName + "_" + timestamp + ".png";
-
-                // Use paths configured in extent.properties (relative to project root)
-                Path screenshotsDir = Paths.get("extent-reports", "screenshots");
-                Files.createDirectories(screenshotsDir);
-                Path dest = screenshotsDir.resolve(fileName);
-                Files.copy(src.toPath(), dest);
-
-                // Add screenshot to Extent (use relative path for proper linking)
-                String relativePath = "./screenshots/" + fileName;
-                ExtentCucumberAdapter.addTestStepScreenCaptureFromPath(relativePath);
-            } catch (Exception ignored) {
+                EvidenceService.submit(screenshot, scenario.getName());
+            }
+        }
+        try {
+            String har = HarRecorder.stop(scenario.isFailed(), ScenarioContext.elapsedMillis());
+            if (har != null) {
+                scenario.log("Network HAR: " + har);
             }
+            DriverFactory.releaseDriver(scenario.isFailed());
+        } finally {
+            ScenarioScheduler.record(scenario.getUri(), scenario.getLine(), ScenarioContext.elapsedMillis());
+            CartSeeder.discard();
+            PerformanceProbe.clear();
+            PrefixSnapshots.clear();
+            ScenarioContext.clear();
+            ScenarioDeadline.clear();
+            ParallelismController.release();
         }
-        DriverFactory.quitDriver();
     }
 }
@@ -0,0 +1,119 @@
+package listeners;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.CommandMetrics;
+import utils.ContextMultiplexer;
+import utils.DriverPool;
+import utils.EvidenceService;
+import utils.HarRecorder;
+import utils.NetworkShaper;
+import utils.ParallelismController;
+import utils.PerformanceProbe;
+import utils.PrefixSnapshots;
+import utils.ProcessTracker;
+import utils.RunLog;
+import utils.SauceDemoStub;
+import utils.ScenarioDeadline;
+import utils.ScenarioScheduler;
+import utils.VirtualThreadExecution;
+import utils.WaitUtils;
+
+/**
+ * TestNG suite listener registered in the testng*.xml suites.
+ * - onStart: kills driver and browser processes left running by earlier runs
+ *   ({@link ProcessTracker}); starts the local SauceDemo stub when enabled; starts the
+ *   {@link ParallelismController} when adaptive parallelism is on; starts the pre-warm of browser
+ *   sessions in the background (while Cucumber is still scanning glue), so worker threads do not
+ *   block on browser start-up; the first runner quits the sessions its scenarios cannot use
+ * - onFinish: flushes queued screenshots, shuts down the driver pool and the stub, writes the
+ *   run's resource report (peak browsers and memory, reclaimed processes), exports WebDriver
+ *   command latencies and page performance trends, and writes the run's metrics (including
+ *   blocked network traffic) as one {@link RunLog} summary on the console and in the report;
+ *   saves scenario durations for the next run's ordering
+ * <p>
+ * Configuration is controlled via system properties:
+ * - driver.prewarm: true | false (default: true; ignored when the pool is disabled)
+ * - driver.prewarm.count: sessions to start (default: the suite's data-provider thread count, or
+ *   the controller's initial limit); never more than driver.pool.size, trimmed to the number of
+ *   scenarios once that is known
+ *
+ * @author NiteshJainQaTestology
+ */
+public class SuiteListener implements ISuiteListener {
+
+    /**
+     * Prepares the run: process sweep, stub, parallelism gate and the browser pre-warm.
+     */
+    @Override
+    public void onStart(ISuite suite) {
+        // before any browser of this run starts
+        ProcessTracker.sweep();
+        if (SauceDemoStub.isEnabled()) {
+            SauceDemoStub.start();
+        }
+        int threads = Integer.getInteger("dataproviderthreadcount",
+                suite.getXmlSuite().getDataProviderThreadCount());
+        if (ParallelismController.isEnabled()) {
+            // no point warming more browsers than scenarios may start with
+            threads = ParallelismController.start(VirtualThreadExecution.isEnabled() ? DriverPool.maxSize() : threads);
+        }
+        boolean prewarm = Boolean.parseBoolean(System.getProperty("driver.prewarm", "true"));
+        if (DriverPool.isEnabled() && prewarm) {
+            DriverPool.prewarm(Integer.getInteger("driver.prewarm.count", threads));
+        }
+    }
+
+    /**
+     * Quits idle pooled sessions once the suite has finished and writes the run summary.
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        ScenarioScheduler.saveDurations();
+        if (ParallelismController.isEnabled()) {
+            ParallelismController.stop();
+            RunLog.summary("ParallelismController", ParallelismController.stats());
+        }
+        shutdownBrowsers();
+        RunLog.summary("WaitUtils", WaitUtils.pageLoadStats());
+        if (HarRecorder.isEnabled()) {
+            RunLog.summary("HarRecorder", HarRecorder.stats());
+        }
+        if (ScenarioDeadline.isEnabled()) {
+            RunLog.summary("ScenarioDeadline", ScenarioDeadline.stats());
+        }
+        if (PrefixSnapshots.isEnabled()) {
+            RunLog.summary("PrefixSnapshots", PrefixSnapshots.stats());
+        }
+        CommandMetrics.export();
+        PerformanceProbe.export();
+        RunLog.writeSummary(true);
+    }
+
+    /**
+     * Ends everything a run started around its browsers and adds their lines to the run summary:
+     * flushes queued screenshots, quits idle pooled sessions and shared browsers, writes the
+     * resource report, stops the stub and reports blocked network traffic. Shared with
+     * {@link runners.LoadRunner}, which runs scenarios without a TestNG suite.
+     */
+    public static void shutdownBrowsers() {
+        EvidenceService.flush(30_000);
+        RunLog.summary("EvidenceService", EvidenceService.stats());
+        DriverPool.shutdown();
+        if (DriverPool.wasUsed()) {
+            RunLog.summary("DriverPool", DriverPool.metricsSummary());
+        }
+        if (ContextMultiplexer.isEnabled()) {
+            RunLog.summary("ContextMultiplexer", ContextMultiplexer.stats());
+            ContextMultiplexer.shutdown();
+        }
+        if (ProcessTracker.isEnabled()) {
+            ProcessTracker.writeReport();
+            RunLog.summary("ProcessTracker", ProcessTracker.report());
+        }
+        SauceDemoStub.stop();
+        if (NetworkShaper.isEnabled()) {
+            RunLog.summary("NetworkShaper", NetworkShaper.report());
+        }
+    }
+}
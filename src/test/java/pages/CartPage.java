@@ -15,7 +15,7 @@ public class CartPage {
     private WebDriver driver;
 
     // Checkout CTA on the cart page
-    private By checkoutButton = By.id("checkout");
+    private static final By CHECKOUT_BUTTON = By.id("checkout");
 
     /**
      * Constructs a new instance bound to the provided WebDriver.
@@ -28,7 +28,7 @@ public class CartPage {
      * Clicks the checkout button to start the checkout flow.
      */
     public void clickCheckout() {
-        ElementActions.click(driver, checkoutButton);
+        ElementActions.click(driver, CHECKOUT_BUTTON);
     }
 }
 
@@ -15,7 +15,7 @@ public class CheckoutCompletePage {
     private WebDriver driver;
 
     // Heading shown upon successful order completion
-    private By completeHeader = By.cssSelector("h2.complete-header");
+    private static final By COMPLETE_HEADER = By.cssSelector("h2.complete-header");
 
     /**
      * Constructs a new instance bound to the provided WebDriver.
@@ -29,7 +29,7 @@ public class CheckoutCompletePage {
      */
     public boolean isComplete() {
         // Verifies the thank you header is present
-        return ElementActions.isDisplayed(driver, completeHeader);
+        return ElementActions.isDisplayed(driver, COMPLETE_HEADER);
     }
 }
 
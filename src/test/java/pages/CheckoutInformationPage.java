@@ -2,6 +2,8 @@ package pages;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import utils.ElementActions;
 
 /**
@@ -15,11 +17,11 @@ public class CheckoutInformationPage {
     private WebDriver driver;
 
     // Form field locators and continue button
-    private By firstName = By.id("first-name");
-    private By lastName = By.id("last-name");
-    private By postalCode = By.id("postal-code");
-    private By continueButton = By.id("continue");
-    private By errorMessage = By.cssSelector("h3[data-test='error']");
+    private static final By FIRST_NAME = By.id("first-name");
+    private static final By LAST_NAME = By.id("last-name");
+    private static final By POSTAL_CODE = By.id("postal-code");
+    private static final By CONTINUE_BUTTON = By.id("continue");
+    private static final By ERROR_MESSAGE = By.cssSelector("h3[data-test='error']");
 
     /**
      * Constructs a new instance bound to the provided WebDriver.
@@ -32,23 +34,25 @@ public class CheckoutInformationPage {
      * Fills in the user information fields.
      */
     public void enterInformation(String fName, String lName, String zip) {
-        ElementActions.sendKeys(driver, firstName, fName);
-        ElementActions.sendKeys(driver, lastName, lName);
-        ElementActions.sendKeys(driver, postalCode, zip);
+        Map<By, CharSequence> fields = new LinkedHashMap<>();
+        fields.put(FIRST_NAME, fName);
+        fields.put(LAST_NAME, lName);
+        fields.put(POSTAL_CODE, zip);
+        ElementActions.fillForm(driver, fields);
     }
 
     /**
      * Clicks the continue button to proceed to checkout overview.
      */
     public void clickContinue() {
-        ElementActions.click(driver, continueButton);
+        ElementActions.click(driver, CONTINUE_BUTTON);
     }
 
     /**
      * Returns the validation error message when form inputs are invalid or missing.
      */
     public String getErrorMessage() {
-        return ElementActions.getText(driver, errorMessage);
+        return ElementActions.getText(driver, ERROR_MESSAGE);
     }
 }
 
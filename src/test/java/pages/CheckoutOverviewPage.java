@@ -17,8 +17,8 @@ public class CheckoutOverviewPage {
     private WebDriver driver;
 
     // Line items listed during checkout and the finish CTA
-    private By lineItems = By.cssSelector(".cart_item .inventory_item_name");
-    private By finishButton = By.id("finish");
+    private static final By LINE_ITEMS = By.cssSelector(".cart_item .inventory_item_name");
+    private static final By FINISH_BUTTON = By.id("finish");
 
     /**
      * Constructs a new instance bound to the provided WebDriver.
@@ -34,7 +34,7 @@ public class CheckoutOverviewPage {
      * @return true if listed, false otherwise
      */
     public boolean isProductListed(String productName) {
-        List<WebElement> items = driver.findElements(lineItems);
+        List<WebElement> items = driver.findElements(LINE_ITEMS);
         for (WebElement e : items) {
             String text = e.getText().trim();
             if (text.equalsIgnoreCase(productName)) {
@@ -48,7 +48,7 @@ public class CheckoutOverviewPage {
      * Clicks the finish button to complete the order.
      */
     public void clickFinish() {
-        ElementActions.click(driver, finishButton);
+        ElementActions.click(driver, FINISH_BUTTON);
     }
 }
 
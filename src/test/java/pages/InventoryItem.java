@@ -0,0 +1,68 @@
+package pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * Immutable snapshot of one product card on the inventory page.
+ * Produced in bulk by {@link InventoryPage#getProducts()}.
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class InventoryItem {
+
+    private final int id;
+    private final String name;
+    private final double price;
+    private final By buttonLocator;
+    private final boolean inCart;
+
+    /**
+     * Creates a snapshot of a single product.
+     *
+     * @param id             numeric product id used by the app (-1 if not present on the card)
+     * @param name           product name (trimmed)
+     * @param price          price with the currency symbol stripped
+     * @param buttonLocator  locator of the card's Add to cart / Remove button (null if there is none)
+     * @param inCart         true if the card's button currently reads Remove
+     */
+    public InventoryItem(int id, String name, double price, By buttonLocator, boolean inCart) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.buttonLocator = buttonLocator;
+        this.inCart = inCart;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public By getButtonLocator() {
+        return buttonLocator;
+    }
+
+    public boolean isInCart() {
+        return inCart;
+    }
+
+    /**
+     * Returns true if this product is the one named, ignoring surrounding whitespace and case.
+     */
+    public boolean hasName(String productName) {
+        return name.trim().equalsIgnoreCase(productName.trim());
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryItem{id=" + id + ", name='" + name + "', price=" + price
+                + ", button=" + buttonLocator + ", inCart=" + inCart + "}";
+    }
+}
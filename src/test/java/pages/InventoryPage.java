@@ -1,16 +1,22 @@
 package pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Select;
+import java.util.Collections;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 import utils.ElementActions;
+import utils.NavigationTracker;
 
 /**
  * Page Object for the inventory (products listing) page.
  * Supports visibility checks, cart navigation, sorting, and reading product names/prices.
+ * <p>
+ * Product data is read through {@link #getProducts()}, which collects every card in a single
+ * script call instead of one WebDriver round trip per product.
  *
  * @author NiteshJainQaTestology
  */
@@ -19,11 +25,34 @@ public class InventoryPage {
     private WebDriver driver;
 
     // Key elements on the inventory screen
-    private By inventoryContainer = By.id("inventory_container");
-    private By inventoryItemNames = By.cssSelector(".inventory_item_name");
-    private By cartLink = By.className("shopping_cart_link");
-    private By sortSelect = By.cssSelector("select.product_sort_container");
-    private By inventoryItemPrices = By.cssSelector(".inventory_item_price");
+    private static final By INVENTORY_CONTAINER = By.id("inventory_container");
+    private static final By CART_LINK = By.className("shopping_cart_link");
+    private static final By SORT_SELECT = By.cssSelector("select.product_sort_container");
+
+    // Reads id, name, price and button state of every product card in one round trip
+    private static final String PRODUCTS_SCRIPT = String.join("\n",
+            "var cards = document.querySelectorAll('.inventory_item');",
+            "var products = [];",
+            "for (var i = 0; i < cards.length; i++) {",
+            "  var card = cards[i];",
+            "  var name = card.querySelector('.inventory_item_name');",
+            "  var price = card.querySelector('.inventory_item_price');",
+            "  var button = card.querySelector('button.btn_inventory');",
+            "  var link = card.querySelector('a[id$=\"_title_link\"]');",
+            "  products.push({",
+            "    id: link ? link.id.replace(/^item_/, '').replace(/_title_link$/, '') : '',",
+            "    name: name ? name.innerText.trim() : '',",
+            "    price: price ? price.innerText.replace('$', '').trim() : '',",
+            "    buttonDataTest: button ? button.getAttribute('data-test') || '' : '',",
+            "    buttonId: button ? button.id : '',",
+            "    inCart: !!button && button.classList.contains('btn_secondary')",
+            "  });",
+            "}",
+            "return products;");
+
+    static {
+        NavigationTracker.registerReadOnlyScript(PRODUCTS_SCRIPT);
+    }
 
     /**
      * Constructs a new instance bound to the provided WebDriver.
@@ -36,33 +65,88 @@ public class InventoryPage {
      * Returns true if the inventory container is displayed.
      */
     public boolean isDisplayed() {
-        return driver.findElement(inventoryContainer).isDisplayed();
+        return driver.findElement(INVENTORY_CONTAINER).isDisplayed();
     }
 
     /**
-     * Adds the specified product to the cart by matching its name in the list.
-     * Locates the item's container via ancestor traversal, then clicks its Add to cart button.
+     * Returns an immutable snapshot of every product card (id, name, price, button state),
+     * in display order, collected with a single script call.
+     */
+    public List<InventoryItem> getProducts() {
+        Object raw = ((JavascriptExecutor) driver).executeScript(PRODUCTS_SCRIPT);
+        List<InventoryItem> products = new ArrayList<InventoryItem>();
+        if (raw instanceof List) {
+            for (Object entry : (List<?>) raw) {
+                Map<?, ?> card = (Map<?, ?>) entry;
+                String id = String.valueOf(card.get("id"));
+                String name = String.valueOf(card.get("name"));
+                products.add(new InventoryItem(
+                        id.matches("\\d+") ? Integer.parseInt(id) : -1,
+                        name,
+                        parsePrice(name, String.valueOf(card.get("price"))),
+                        buttonLocator(String.valueOf(card.get("buttonDataTest")), String.valueOf(card.get("buttonId"))),
+                        Boolean.TRUE.equals(card.get("inCart"))));
+            }
+        }
+        return Collections.unmodifiableList(products);
+    }
+
+    /**
+     * Adds the specified product to the cart by matching its name in the product snapshot
+     * (ignoring case, see {@link InventoryItem#hasName(String)}), then clicks that card's Add to
+     * cart button (located by data-test, else by id).
      *
-     * @throws IllegalStateException when the product is not found in the list
+     * @throws IllegalStateException when the product is not found in the list, has no button or
+     *                               is already in the cart
      */
     public void addProductToCart(String productName) {
-        List<WebElement> names = driver.findElements(inventoryItemNames);
-        for (WebElement nameEl : names) {
-            if (nameEl.getText().trim().equalsIgnoreCase(productName)) {
-                // For this item, find its container and click its Add to cart button
-                WebElement item = nameEl.findElement(By.xpath("./ancestor::div[@class='inventory_item']"));
-                item.findElement(By.cssSelector("button.btn.btn_primary.btn_small.btn_inventory")).click();
+        for (InventoryItem product : getProducts()) {
+            if (product.hasName(productName)) {
+                if (product.isInCart()) {
+                    throw new IllegalStateException("Product already in cart: " + productName);
+                }
+                if (product.getButtonLocator() == null) {
+                    throw new IllegalStateException("Product has no Add to cart button with a data-test or id: " + productName);
+                }
+                ElementActions.click(driver, product.getButtonLocator());
                 return;
             }
         }
         throw new IllegalStateException("Product not found on inventory: " + productName);
     }
 
+    /**
+     * Price read from a card with the currency symbol stripped; NaN when the card shows none.
+     *
+     * @throws IllegalStateException when the price is not a number
+     */
+    private static double parsePrice(String productName, String price) {
+        if (price.isEmpty()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(price);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Price of product '" + productName + "' is not a number: '" + price + "'", e);
+        }
+    }
+
+    /**
+     * Locator of a card's button from the attributes the products script read, preferring
+     * data-test; null when the card has no button or the button has neither attribute.
+     */
+    private static By buttonLocator(String dataTest, String id) {
+        if (!dataTest.isEmpty()) {
+            return By.cssSelector("[data-test='" + dataTest + "']");
+        }
+        return id.isEmpty() ? null : By.id(id);
+    }
+
     /**
      * Opens the shopping cart page.
      */
     public void openCart() {
-        ElementActions.click(driver, cartLink);
+        ElementActions.click(driver, CART_LINK);
     }
 
     /**
@@ -71,7 +155,7 @@ public class InventoryPage {
      * @param sortName one of: Name (A to Z), Name (Z to A), Price (low to high), Price (high to low)
      */
     public void sort(String sortName) {
-        Select select = new Select(driver.findElement(sortSelect));
+        Select select = new Select(driver.findElement(SORT_SELECT));
         switch (sortName) {
             case "Name (A to Z)":
                 select.selectByValue("az");
@@ -94,10 +178,9 @@ public class InventoryPage {
      * Returns the list of product names shown on the page (trimmed).
      */
     public List<String> getProductNames() {
-        List<WebElement> elements = driver.findElements(inventoryItemNames);
         List<String> names = new ArrayList<String>();
-        for (WebElement e : elements) {
-            names.add(e.getText().trim());
+        for (InventoryItem product : getProducts()) {
+            names.add(product.getName());
         }
         return names;
     }
@@ -106,11 +189,9 @@ public class InventoryPage {
      * Returns the list of product prices as numbers (currency symbol stripped).
      */
     public List<Double> getProductPrices() {
-        List<WebElement> elements = driver.findElements(inventoryItemPrices);
         List<Double> prices = new ArrayList<Double>();
-        for (WebElement e : elements) {
-            String text = e.getText().replace("$", "").trim();
-            prices.add(Double.valueOf(text));
+        for (InventoryItem product : getProducts()) {
+            prices.add(product.getPrice());
         }
         return prices;
     }
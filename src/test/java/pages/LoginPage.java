@@ -2,7 +2,11 @@ package pages;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import utils.ElementActions;
+import utils.PerformanceProbe;
+import utils.SauceDemoStub;
 import utils.WaitUtils;
 
 /**
@@ -16,10 +20,10 @@ public class LoginPage {
     private WebDriver driver;
 
     // Locators for login form elements and error banner
-    private By username = By.id("user-name");
-    private By password = By.id("password");
-    private By loginBtn = By.id("login-button");
-    private By errorMessage = By.cssSelector("h3[data-test='error']");
+    private static final By USERNAME = By.id("user-name");
+    private static final By PASSWORD = By.id("password");
+    private static final By LOGIN_BUTTON = By.id("login-button");
+    private static final By ERROR_MESSAGE = By.cssSelector("h3[data-test='error']");
 
     /**
      * Constructs a new instance bound to the provided WebDriver.
@@ -29,11 +33,16 @@ public class LoginPage {
     }
 
     /**
-     * Opens the SauceDemo login page and waits for document readiness.
+     * Opens the SauceDemo login page (public site or local stub, see {@link SauceDemoStub#baseUrl()})
+     * and waits for document readiness. Samples page performance when {@link PerformanceProbe}
+     * auto-probing is on.
      */
     public void open() {
-        driver.get("https://www.saucedemo.com/");
+        driver.get(SauceDemoStub.baseUrl());
         WaitUtils.waitForPageLoad(driver);
+        if (PerformanceProbe.isAutoProbe()) {
+            PerformanceProbe.capture(driver, "login page");
+        }
     }
 
     /**
@@ -43,15 +52,25 @@ public class LoginPage {
      * @param pass password value
      */
     public void login(String user, String pass) {
-        ElementActions.sendKeys(driver, username, user);
-        ElementActions.sendKeys(driver, password, pass);
-        ElementActions.click(driver, loginBtn);
+        Map<By, CharSequence> fields = new LinkedHashMap<>();
+        fields.put(USERNAME, user);
+        fields.put(PASSWORD, pass);
+        ElementActions.fillForm(driver, fields);
+        ElementActions.click(driver, LOGIN_BUTTON);
+    }
+
+    /**
+     * Samples the performance of the inventory page a login lands on; nothing is sampled when
+     * the login shows an error instead.
+     */
+    public void sampleLandingPage() {
+        PerformanceProbe.captureAt(driver, "inventory.html", "h3[data-test='error']", "inventory page");
     }
 
     /**
      * Returns the text of the error banner (if present) after a failed login attempt.
      */
     public String getErrorMessage() {
-        return ElementActions.getText(driver, errorMessage);
+        return ElementActions.getText(driver, ERROR_MESSAGE);
     }
 }
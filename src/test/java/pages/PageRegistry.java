@@ -0,0 +1,76 @@
+package pages;
+
+import org.openqa.selenium.WebDriver;
+import utils.DriverFactory;
+
+/**
+ * Scenario-scoped holder of the page objects, injected by Cucumber's PicoContainer into every
+ * step definition class that declares it as a constructor parameter.
+ * <p>
+ * PicoContainer creates one registry per scenario and shares it across the step classes of that
+ * scenario. Each page is built on first use, against the driver bound to the scenario's thread
+ * at that moment, and reused for the rest of the scenario; steps that never run build nothing.
+ * Locators are static constants of the page classes, so building a page allocates no locators.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class PageRegistry {
+
+    private LoginPage loginPage;
+    private InventoryPage inventoryPage;
+    private CartPage cartPage;
+    private CheckoutInformationPage checkoutInformationPage;
+    private CheckoutOverviewPage checkoutOverviewPage;
+    private CheckoutCompletePage checkoutCompletePage;
+
+    public LoginPage login() {
+        if (loginPage == null) {
+            loginPage = new LoginPage(driver());
+        }
+        return loginPage;
+    }
+
+    public InventoryPage inventory() {
+        if (inventoryPage == null) {
+            inventoryPage = new InventoryPage(driver());
+        }
+        return inventoryPage;
+    }
+
+    public CartPage cart() {
+        if (cartPage == null) {
+            cartPage = new CartPage(driver());
+        }
+        return cartPage;
+    }
+
+    public CheckoutInformationPage checkoutInformation() {
+        if (checkoutInformationPage == null) {
+            checkoutInformationPage = new CheckoutInformationPage(driver());
+        }
+        return checkoutInformationPage;
+    }
+
+    public CheckoutOverviewPage checkoutOverview() {
+        if (checkoutOverviewPage == null) {
+            checkoutOverviewPage = new CheckoutOverviewPage(driver());
+        }
+        return checkoutOverviewPage;
+    }
+
+    public CheckoutCompletePage checkoutComplete() {
+        if (checkoutCompletePage == null) {
+            checkoutCompletePage = new CheckoutCompletePage(driver());
+        }
+        return checkoutCompletePage;
+    }
+
+    private static WebDriver driver() {
+        WebDriver driver = DriverFactory.getDriver();
+        if (driver == null) {
+            throw new IllegalStateException("No WebDriver bound to this thread; page objects are only "
+                    + "available while a scenario runs");
+        }
+        return driver;
+    }
+}
@@ -0,0 +1,83 @@
+package runners;
+
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import utils.DriverPool;
+import utils.PrefixSnapshots;
+import utils.ScenarioScheduler;
+import utils.VirtualThreadExecution;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Common base for the TestNG Cucumber runners; subclasses only declare {@code @CucumberOptions}.
+ * <p>
+ * Two execution modes (see {@link VirtualThreadExecution}):
+ * - platform (default): scenarios are data-provider rows run by TestNG's thread pool
+ *   (-Ddataproviderthreadcount), one TestNG test per scenario
+ * - virtual: the data provider yields no rows; a single TestNG test runs every scenario on its
+ *   own virtual thread, with the number of browsers bounded by the driver pool
+ * <p>
+ * In both modes scenarios are ordered (and sharded) by {@link ScenarioScheduler}, and the rows that
+ * share a step prefix are prepared for {@link PrefixSnapshots}; the first runner quits the
+ * pre-warmed browsers beyond its number of scenarios.
+ *
+ * @author NiteshJainQaTestology
+ */
+public abstract class BaseRunner extends AbstractTestNGCucumberTests {
+
+    // Only the first runner trims the suite's pre-warm; later runners reuse whatever is idle
+    private static final AtomicBoolean prewarmTrimmed = new AtomicBoolean();
+
+    // Enable parallel execution of scenarios via TestNG's DataProvider thread pool.
+    // Control threads from CLI: -Ddataproviderthreadcount=1 (sequential) or >1 (parallel)
+    @Override
+    @DataProvider(parallel = true)
+    public Object[][] scenarios() {
+        if (VirtualThreadExecution.isEnabled()) {
+            return new Object[0][];
+        }
+        Object[][] scenarios = PrefixSnapshots.prepare(ScenarioScheduler.schedule(super.scenarios()));
+        trimPrewarm(scenarios.length);
+        return scenarios;
+    }
+
+    /**
+     * Single row holding all scenarios in virtual-thread mode; no rows otherwise, so
+     * {@link #runScenariosOnVirtualThreads(VirtualThreadExecution.Batch)} does not run in platform mode.
+     */
+    @DataProvider
+    public Object[][] virtualThreadScenarios() {
+        if (!VirtualThreadExecution.isEnabled()) {
+            return new Object[0][];
+        }
+        Object[][] scenarios = PrefixSnapshots.prepare(ScenarioScheduler.schedule(super.scenarios()));
+        trimPrewarm(scenarios.length);
+        return new Object[][] {{new VirtualThreadExecution.Batch(Arrays.asList(scenarios))}};
+    }
+
+    /**
+     * Runs every scenario on its own virtual thread and fails if any scenario failed.
+     *
+     * @param scenarios data-provider rows (PickleWrapper, FeatureWrapper) of this runner
+     */
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios on virtual threads",
+            dataProvider = "virtualThreadScenarios")
+    public void runScenariosOnVirtualThreads(VirtualThreadExecution.Batch scenarios) throws Throwable {
+        VirtualThreadExecution.runAll(scenarios,
+                row -> runScenario((PickleWrapper) row[0], (FeatureWrapper) row[1]));
+    }
+
+    /**
+     * Quits the pre-warmed sessions beyond the number of scenarios the first runner will run.
+     */
+    private static void trimPrewarm(int scenarios) {
+        if (DriverPool.isEnabled() && prewarmTrimmed.compareAndSet(false, true)) {
+            DriverPool.trimIdle(scenarios);
+        }
+    }
+}
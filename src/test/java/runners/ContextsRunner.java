@@ -0,0 +1,24 @@
+package runners;
+
+import io.cucumber.testng.CucumberOptions;
+
+/**
+ * Runner for executing only the browser_contexts.feature, which checks that sessions sharing a
+ * browser process stay isolated. Its scenarios are skipped unless Chrome sessions are multiplexed.
+ *
+ * Execution mode:
+ * - mvn test -Dsurefire.suiteXmlFiles=testng-contexts.xml -Dbrowser=chrome -Ddriver.contexts.per.browser=4
+ * The @DataProvider(parallel = true) in {@link BaseRunner} enables concurrency; thread count is controlled by the CLI flag.
+ *
+ * @author NiteshJainQaTestology
+ */
+@CucumberOptions(
+        features = "src/test/resources/features/browser_contexts.feature",
+        glue = {"stepdefinitions", "hooks"},
+        plugin = {
+                "pretty",
+                "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:"
+        }
+)
+public class ContextsRunner extends BaseRunner {
+}
@@ -1,8 +1,6 @@
 package runners;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
-import org.testng.annotations.DataProvider;
 
 /**
  * Runner for executing only the inventory_sort.feature.
@@ -11,7 +9,7 @@ import org.testng.annotations.DataProvider;
  * Execution mode:
  * - Sequential: mvn test -Dsurefire.suiteXmlFiles=testng-inventory-sort.xml -Ddataproviderthreadcount=1
  * - Parallel:   mvn test -Dsurefire.suiteXmlFiles=testng-inventory-sort.xml -Ddataproviderthreadcount=4
- * The @DataProvider(parallel = true) enables concurrency; thread count is controlled by the CLI flag.
+ * The @DataProvider(parallel = true) in {@link BaseRunner} enables concurrency; thread count is controlled by the CLI flag.
  *
  * @author NiteshJainQaTestology
  */
@@ -23,13 +21,7 @@ import org.testng.annotations.DataProvider;
                 "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:"
         }
 )
-public class InventorySortRunner extends AbstractTestNGCucumberTests {
-
-    @Override
-    @DataProvider(parallel = true)
-    public Object[][] scenarios() {
-        return super.scenarios();
-    }
+public class InventorySortRunner extends BaseRunner {
 }
 
 
@@ -0,0 +1,134 @@
+package runners;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import listeners.SuiteListener;
+import utils.DriverPool;
+import utils.ProcessTracker;
+import utils.RunLog;
+import utils.SauceDemoStub;
+import utils.StepLatencyRecorder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the Gherkin user journeys as concurrent virtual users, to use the suite as a front-end
+ * performance probe without a second set of scripts.
+ * <p>
+ * Each virtual user is a thread with its own (headless by default) browser that runs the selected
+ * scenarios round-robin, back to back, with the regular step definitions and hooks. Users start
+ * evenly spread over the ramp-up phase; after the steady-state phase no new scenarios are started
+ * and running ones finish. Step and scenario latencies are recorded per phase by
+ * {@link StepLatencyRecorder} into HDR histograms under the report directory; the scenarios still
+ * running at the end of the steady state count towards it. Browsers and the stub are shut down as
+ * at the end of a suite ({@link SuiteListener#shutdownBrowsers()}).
+ * <p>
+ * The target is the application base URL (base.url, or the local stub with -Dstub.enabled=true).
+ * Features can be narrowed with the usual -Dcucumber.features / -Dcucumber.filter.tags.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - load.users: number of concurrent virtual users (default: 4)
+ * - load.rampup.seconds: time over which users are started (default: 30)
+ * - load.steady.seconds: steady-state duration once all users run (default: 60)
+ * - load.think.millis: pause between two scenarios of a user (default: 0)
+ * - load.report.dir: output directory (default: target/load)
+ * <p>
+ * Usage: mvn test -Pload -Dload.users=8 -Dload.rampup.seconds=60 -Dload.steady.seconds=300
+ *
+ * @author NiteshJainQaTestology
+ */
+@CucumberOptions(
+        features = {
+                "src/test/resources/features/login.feature",
+                "src/test/resources/features/checkout.feature"
+        },
+        glue = {"stepdefinitions", "hooks"},
+        plugin = {"utils.StepLatencyRecorder"}
+)
+public final class LoadRunner {
+
+    private LoadRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 4);
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(Long.getLong("load.rampup.seconds", 30L));
+        long steadyMillis = TimeUnit.SECONDS.toMillis(Long.getLong("load.steady.seconds", 60L));
+        long thinkMillis = Long.getLong("load.think.millis", 0L);
+        Path reportDir = Paths.get(System.getProperty("load.report.dir", "target/load"));
+        if (users < 1) {
+            throw new IllegalStateException("load.users must be at least 1 but was " + users);
+        }
+        // one browser per user, headless unless asked otherwise; read by DriverFactory/DriverPool
+        System.setProperty("headless", System.getProperty("headless", "true"));
+        System.setProperty("driver.pool.size", System.getProperty("driver.pool.size", String.valueOf(users)));
+
+        TestNGCucumberRunner cucumber = new TestNGCucumberRunner(LoadRunner.class);
+        List<PickleWrapper> scenarios = new ArrayList<>();
+        for (Object[] row : cucumber.provideScenarios()) {
+            scenarios.add((PickleWrapper) row[0]);
+        }
+        if (scenarios.isEmpty()) {
+            throw new IllegalStateException("No scenarios selected for the load run");
+        }
+        if (SauceDemoStub.isEnabled()) {
+            SauceDemoStub.start();
+        }
+        ProcessTracker.sweep();
+        if (DriverPool.isEnabled()) {
+            DriverPool.prewarm(users);
+        }
+        RunLog.summary("LoadRunner", users + " users, " + scenarios.size() + " scenarios, ramp-up "
+                + rampUpMillis / 1000 + " s, steady state " + steadyMillis / 1000 + " s, target "
+                + SauceDemoStub.baseUrl());
+
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long start = System.nanoTime();
+        long endNanos = start + TimeUnit.MILLISECONDS.toNanos(rampUpMillis + steadyMillis);
+        StepLatencyRecorder.startPhases(rampUpMillis, steadyMillis);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            long startDelayNanos = TimeUnit.MILLISECONDS.toNanos(rampUpMillis * user / users);
+            int firstScenario = user % scenarios.size();
+            threads.add(Thread.ofVirtual().name("vuser-" + (user + 1)).start(() -> {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(start + startDelayNanos - System.nanoTime());
+                    for (int i = firstScenario; System.nanoTime() < endNanos; i++) {
+                        try {
+                            cucumber.runScenario(scenarios.get(i % scenarios.size()).getPickle());
+                            completed.incrementAndGet();
+                        } catch (Throwable t) {
+                            failed.incrementAndGet();
+                        }
+                        if (thinkMillis > 0) {
+                            Thread.sleep(thinkMillis);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        RunLog.summary("LoadRunner", String.format("%d scenarios passed, %d failed in %.1f s (%.2f scenarios/s)",
+                completed.get(), failed.get(), seconds, (completed.get() + failed.get()) / seconds));
+        try {
+            StepLatencyRecorder.report(reportDir);
+        } finally {
+            cucumber.finish();
+            SuiteListener.shutdownBrowsers();
+            RunLog.writeSummary(false);
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package runners;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
-import org.testng.annotations.DataProvider;
 
 /**
  * Runner for executing only the login.feature.
@@ -11,7 +9,7 @@ import org.testng.annotations.DataProvider;
  * Execution mode:
  * - Sequential: mvn test -Dsurefire.suiteXmlFiles=testng-login.xml -Ddataproviderthreadcount=1
  * - Parallel:   mvn test -Dsurefire.suiteXmlFiles=testng-login.xml -Ddataproviderthreadcount=4
- * The @DataProvider(parallel = true) enables concurrency; thread count is controlled by the CLI flag.
+ * The @DataProvider(parallel = true) in {@link BaseRunner} enables concurrency; thread count is controlled by the CLI flag.
  *
  * @author NiteshJainQaTestology
  */
@@ -21,16 +19,12 @@ import org.testng.annotations.DataProvider;
         plugin = {
                 "pretty",
                 "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:"
-        }
-        // No default tags; run all scenarios in this feature unless -Dcucumber.filter.tags is provided
+        },
+        // All scenarios in this feature except the @perf budget check,
+        // unless -Dcucumber.filter.tags is provided
+        tags = "not @perf"
 )
-public class LoginRunner extends AbstractTestNGCucumberTests {
-
-    @Override
-    @DataProvider(parallel = true)
-    public Object[][] scenarios() {
-        return super.scenarios();
-    }
+public class LoginRunner extends BaseRunner {
 }
 
 
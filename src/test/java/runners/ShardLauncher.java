@@ -0,0 +1,192 @@
+package runners;
+
+import utils.ReportMerger;
+import utils.RunLog;
+import utils.ScenarioScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Runs one TestNG suite as several shard JVMs on this host and merges their reports.
+ * <p>
+ * Each shard runs the same suite with -Dshard.count/-Dshard.index/-Dshard.seed, so
+ * {@link utils.ScenarioScheduler} keeps only its share of the filtered scenarios (balanced by
+ * recorded durations, identical assignment in every JVM). The duration history is copied once to
+ * target/shards/scenario-durations.properties and every shard reads that snapshot, so a shard that
+ * starts late or is re-run computes the same partition; shards save their measurements next to
+ * their output and the launcher merges them into the history after the run. Shard output goes to
+ * target/shards/shard-N (console log, TestNG output, Extent JSON archive, Cucumber JSON); when all
+ * shards have finished, the Extent archives are merged into extent-reports/index.html and the
+ * Cucumber JSON files into target/cucumber.json.
+ * <p>
+ * Every system property given to the launcher (browser, headless, dataproviderthreadcount,
+ * cucumber.filter.tags, ...) is passed on to the shards, except JVM and Maven internals. The
+ * Cucumber JSON plugin is added to the configured cucumber.plugin list rather than replacing it.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - shard.count: number of shard JVMs (default: 2)
+ * - shard.seed: tie-break seed for the shard assignment (default: 0)
+ * - shard.suite: suite XML to run (default: surefire.suiteXmlFiles, else testng.xml)
+ * <p>
+ * Usage: mvn test -Pshards -Dshard.count=4 -Dsurefire.suiteXmlFiles=testng-regression.xml
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ShardLauncher {
+
+    private static final Path SHARDS_DIR = Paths.get("target", "shards");
+    private static final Path MERGED_EXTENT = Paths.get("extent-reports", "index.html");
+    private static final Path MERGED_CUCUMBER = Paths.get("target", "cucumber.json");
+    private static final Path DURATIONS_SNAPSHOT = SHARDS_DIR.resolve("scenario-durations.properties");
+    private static final String SHARD_DURATIONS = "scenario-durations.properties";
+
+    // Properties describing the launcher JVM itself, not the test run
+    private static final Set<String> INTERNAL_PREFIXES = Set.of(
+            "java.", "javax.", "jdk.", "sun.", "os.", "user.", "file.", "line.", "path.", "native.",
+            "stdout.", "stderr.", "maven.", "classworlds.", "library.", "guice.", "awt.", "exec.",
+            "shard.", "env.", "jansi.", "style.", "picocli.", "scheduler.durations.", "cucumber.plugin");
+
+    private ShardLauncher() {}
+
+    public static void main(String[] args) throws Exception {
+        int count = Integer.getInteger("shard.count", 2);
+        long seed = Long.getLong("shard.seed", 0L);
+        String suite = System.getProperty("shard.suite", System.getProperty("surefire.suiteXmlFiles", "testng.xml"));
+        if (count < 1) {
+            throw new IllegalStateException("shard.count must be at least 1 but was " + count);
+        }
+
+        Files.createDirectories(SHARDS_DIR);
+        ScenarioScheduler.snapshotDurations(DURATIONS_SNAPSHOT);
+        String plugins = configuredPlugins();
+
+        List<Path> shardDirs = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = classpath();
+        for (int index = 0; index < count; index++) {
+            Path dir = SHARDS_DIR.resolve("shard-" + index);
+            Files.createDirectories(dir);
+            Files.deleteIfExists(dir.resolve(ReportMerger.EXTENT_ARCHIVE));
+            Files.deleteIfExists(dir.resolve(ReportMerger.CUCUMBER_JSON));
+            Files.deleteIfExists(dir.resolve(SHARD_DURATIONS));
+            shardDirs.add(dir);
+
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            // Extent's JSON archive serializes failures (Throwables) reflectively
+            command.add("--add-opens");
+            command.add("java.base/java.lang=ALL-UNNAMED");
+            command.add("-cp");
+            command.add(classpath);
+            command.addAll(forwardedProperties());
+            command.add("-Dshard.count=" + count);
+            command.add("-Dshard.index=" + index);
+            command.add("-Dshard.seed=" + seed);
+            command.add("-Dscheduler.durations.file=" + DURATIONS_SNAPSHOT);
+            command.add("-Dscheduler.durations.save=" + dir.resolve(SHARD_DURATIONS));
+            command.add("-Dextent.reporter.json.start=true");
+            command.add("-Dextent.reporter.json.out=" + dir.resolve(ReportMerger.EXTENT_ARCHIVE));
+            command.add("-Dcucumber.plugin=" + (plugins.isEmpty() ? "" : plugins + ",")
+                    + "json:" + dir.resolve(ReportMerger.CUCUMBER_JSON));
+            command.add("org.testng.TestNG");
+            command.add("-d");
+            command.add(dir.resolve("testng-output").toString());
+            command.add(suite);
+
+            File log = dir.resolve("console.log").toFile();
+            processes.add(new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start());
+            RunLog.event("ShardLauncher", "Started shard " + index + "/" + count + " (log: " + log + ")");
+        }
+
+        List<Integer> failed = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            int exitCode = processes.get(index).waitFor();
+            RunLog.summary("ShardLauncher", "Shard " + index + " finished with exit code " + exitCode);
+            if (exitCode != 0) {
+                failed.add(index);
+            }
+        }
+        ScenarioScheduler.mergeDurations(shardDirs.stream().map(dir -> dir.resolve(SHARD_DURATIONS)).collect(Collectors.toList()));
+
+        // Restoring failures from the archives needs the same opens, so merge in a separate JVM
+        List<String> merge = new ArrayList<>(List.of(java, "--add-opens", "java.base/java.lang=ALL-UNNAMED",
+                "-cp", classpath, ReportMerger.class.getName(),
+                MERGED_EXTENT.toString(), MERGED_CUCUMBER.toString()));
+        shardDirs.forEach(dir -> merge.add(dir.toString()));
+        int mergeExitCode = new ProcessBuilder(merge).inheritIO().start().waitFor();
+        if (mergeExitCode != 0) {
+            RunLog.writeSummary(false);
+            throw new IllegalStateException("Merging shard reports failed with exit code " + mergeExitCode);
+        }
+        RunLog.summary("ShardLauncher", "Reports merged into " + MERGED_EXTENT + " and " + MERGED_CUCUMBER);
+        RunLog.writeSummary(false);
+
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Shards with failures: " + failed + " (see " + SHARDS_DIR + ")");
+        }
+    }
+
+    /**
+     * Test classpath of this launcher. Under exec:java the project classpath lives in the context
+     * class loader rather than java.class.path.
+     */
+    private static String classpath() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Unsupported classpath entry: " + url, e);
+                }
+            }
+            if (!entries.isEmpty()) {
+                return String.join(File.pathSeparator, entries);
+            }
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    /**
+     * Plugins the shards would run without the launcher: -Dcucumber.plugin if given, else the
+     * cucumber.plugin entry of cucumber.properties on the test classpath. A system property would
+     * otherwise replace the one from the file.
+     */
+    private static String configuredPlugins() throws IOException {
+        String plugins = System.getProperty("cucumber.plugin");
+        if (plugins == null) {
+            Properties properties = new Properties();
+            try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream("cucumber.properties")) {
+                if (in != null) {
+                    properties.load(in);
+                }
+            }
+            plugins = properties.getProperty("cucumber.plugin", "");
+        }
+        return plugins.trim();
+    }
+
+    private static List<String> forwardedProperties() {
+        return System.getProperties().entrySet().stream()
+                .map(entry -> Map.entry(String.valueOf(entry.getKey()), String.valueOf(entry.getValue())))
+                .filter(entry -> INTERNAL_PREFIXES.stream().noneMatch(entry.getKey()::startsWith))
+                .map(entry -> "-D" + entry.getKey() + "=" + entry.getValue())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,6 @@
 package runners;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
-import org.testng.annotations.DataProvider;
 
 /**
  * Runner for executing all @smoke scenarios across all features.
@@ -10,7 +8,7 @@ import org.testng.annotations.DataProvider;
  * Execution mode:
  * - Sequential: mvn test -Dsurefire.suiteXmlFiles=testng-smoke.xml -Ddataproviderthreadcount=1
  * - Parallel:   mvn test -Dsurefire.suiteXmlFiles=testng-smoke.xml -Ddataproviderthreadcount=4
- * The @DataProvider(parallel = true) enables concurrency; thread count is controlled by the CLI flag.
+ * The @DataProvider(parallel = true) in {@link BaseRunner} enables concurrency; thread count is controlled by the CLI flag.
  *
  * @author NiteshJainQaTestology
  */
@@ -23,13 +21,7 @@ import org.testng.annotations.DataProvider;
         },
         tags = "@smoke"
 )
-public class SmokeRunner extends AbstractTestNGCucumberTests {
-
-    @Override
-    @DataProvider(parallel = true)
-    public Object[][] scenarios() {
-        return super.scenarios();
-    }
+public class SmokeRunner extends BaseRunner {
 }
 
 
@@ -1,8 +1,6 @@
 package runners;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
-import org.testng.annotations.DataProvider;
 
 /**
  * TestNG+Cucumber runner configuration.
@@ -11,7 +9,7 @@ import org.testng.annotations.DataProvider;
  * - Plugins: pretty + ExtentReports adapter
  * - Tags: defaults to "@smoke or @regression" (override via -Dcucumber.filter.tags)
  *
- * Extends {@link AbstractTestNGCucumberTests} to leverage TestNG's DataProvider
+ * Extends {@link BaseRunner} to leverage TestNG's DataProvider
  * for parallel execution of Cucumber scenarios.
  *
  * @author NiteshJainQaTestology
@@ -26,14 +24,6 @@ import org.testng.annotations.DataProvider;
         // Default: run smoke or regression; override with -Dcucumber.filter.tags
         tags = "@smoke or @regression"
 )
-public class TestRunner extends AbstractTestNGCucumberTests {
-
-    // Enable parallel execution of scenarios via TestNG's DataProvider thread pool.
-    // Control threads from CLI: -Ddataproviderthreadcount=1 (sequential) or >1 (parallel)
-    @Override
-    @DataProvider(parallel = true)
-    public Object[][] scenarios() {
-        return super.scenarios();
-    }
+public class TestRunner extends BaseRunner {
 }
 
@@ -0,0 +1,117 @@
+package stepdefinitions;
+
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.SkipException;
+import pages.LoginPage;
+import utils.ContextMultiplexer;
+import utils.DriverFactory;
+import utils.DriverPool;
+
+/**
+ * Step definitions checking that sessions sharing one browser process through
+ * {@link ContextMultiplexer} are isolated from each other, also when the pool reuses one of them.
+ * The scenario's own session is the first one; the second is opened and quit by these steps.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class BrowserContextSteps {
+
+    private static final String PROBE = "isolation-probe";
+
+    private WebDriver second;
+
+    /**
+     * Skips the scenario unless Chrome sessions are multiplexed; two separate browsers would
+     * prove nothing about context isolation.
+     */
+    @Given("Chrome sessions share browser processes")
+    public void chrome_sessions_share_browser_processes() {
+        if (!ContextMultiplexer.isEnabled() || !"chrome".equalsIgnoreCase(System.getProperty("browser", "firefox"))) {
+            throw new SkipException("Needs -Dbrowser=chrome -Ddriver.contexts.per.browser=2 or more");
+        }
+    }
+
+    /**
+     * Opens another session the way a parallel scenario would get one, on the login page.
+     */
+    @And("a second browser session is open on the SauceDemo login page")
+    public void a_second_browser_session_is_open() {
+        second = DriverFactory.createDriver();
+        new LoginPage(second).open();
+    }
+
+    /**
+     * Writes a cookie and a localStorage entry, both named after the session, in that session.
+     */
+    @When("the {word} session stores a cookie and a local storage entry")
+    public void the_session_stores_state(String which) {
+        WebDriver session = session(which);
+        session.manage().addCookie(new Cookie(PROBE, which));
+        ((JavascriptExecutor) session).executeScript("window.localStorage.setItem(arguments[0], arguments[1]);", PROBE, which);
+        Assert.assertNotNull(session.manage().getCookieNamed(PROBE), "Probe cookie was not stored");
+    }
+
+    /**
+     * Returns the scenario's session to the pool and leases it again, as the next scenario on this
+     * thread would, then opens the login page in it.
+     */
+    @When("the first session is returned to the pool and leased again")
+    public void the_first_session_is_returned_and_leased_again() {
+        if (!DriverPool.isEnabled()) {
+            throw new SkipException("Needs the driver pool (driver.pool.enabled=true)");
+        }
+        WebDriver released = DriverFactory.getDriver();
+        DriverFactory.releaseDriver(false);
+        DriverFactory.initDriver();
+        Assert.assertSame(DriverFactory.getDriver(), released, "The pool did not hand the session out again");
+        new LoginPage(DriverFactory.getDriver()).open();
+    }
+
+    /**
+     * Verifies the session sees neither the cookie nor the localStorage entry.
+     */
+    @Then("the {word} session should not see the cookie or the local storage entry")
+    public void the_session_should_not_see_state(String which) {
+        WebDriver session = session(which);
+        session.navigate().refresh();
+        Assert.assertNull(session.manage().getCookieNamed(PROBE), "Cookie leaked into the " + which + " session");
+        Object stored = ((JavascriptExecutor) session).executeScript("return window.localStorage.getItem(arguments[0]);", PROBE);
+        Assert.assertNull(stored, "localStorage leaked into the " + which + " session");
+    }
+
+    /**
+     * Verifies the session's page is still open and kept its own cookie and localStorage entry.
+     */
+    @Then("the {word} session should still see its cookie and local storage entry")
+    public void the_session_should_still_see_its_state(String which) {
+        WebDriver session = session(which);
+        session.navigate().refresh();
+        Cookie cookie = session.manage().getCookieNamed(PROBE);
+        Assert.assertEquals(cookie == null ? null : cookie.getValue(), which, "Cookie of the " + which + " session was lost");
+        Object stored = ((JavascriptExecutor) session).executeScript("return window.localStorage.getItem(arguments[0]);", PROBE);
+        Assert.assertEquals(stored, which, "localStorage of the " + which + " session was lost");
+    }
+
+    /**
+     * Quits the second session; the scenario's own session is released by the global hooks.
+     */
+    @After("@contexts")
+    public void quitSecondSession() {
+        if (second != null) {
+            second.quit();
+            second = null;
+        }
+    }
+
+    private WebDriver session(String which) {
+        return "second".equals(which) ? second : DriverFactory.getDriver();
+    }
+}
@@ -3,11 +3,8 @@ package stepdefinitions;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Then;
 import org.testng.Assert;
-import pages.CartPage;
-import pages.CheckoutInformationPage;
-import pages.CheckoutOverviewPage;
-import pages.InventoryPage;
-import pages.CheckoutCompletePage;
+import pages.PageRegistry;
+import utils.CartSeeder;
 import utils.DriverFactory;
 
 /**
@@ -18,28 +15,35 @@ import utils.DriverFactory;
  */
 public class CheckoutSteps {
 
-    private final InventoryPage inventoryPage = new InventoryPage(DriverFactory.getDriver());
-    private final CartPage cartPage = new CartPage(DriverFactory.getDriver());
-    private final CheckoutInformationPage checkoutInformationPage = new CheckoutInformationPage(DriverFactory.getDriver());
-    private final CheckoutOverviewPage checkoutOverviewPage = new CheckoutOverviewPage(DriverFactory.getDriver());
-    private final CheckoutCompletePage checkoutCompletePage = new CheckoutCompletePage(DriverFactory.getDriver());
+    private final PageRegistry pages;
+
+    public CheckoutSteps(PageRegistry pages) {
+        this.pages = pages;
+    }
 
     /**
      * Adds a product to the cart from the inventory page.
+     * When {@link CartSeeder} is active the product is queued and written to the cart
+     * when it is opened, instead of clicking its Add to cart button.
      */
     @And("user adds product {string} to the cart from inventory")
     public void user_adds_product_to_cart_from_inventory(String productName) {
-        Assert.assertTrue(inventoryPage.isDisplayed(), "Inventory page should be displayed before adding to cart");
-        inventoryPage.addProductToCart(productName);
+        Assert.assertTrue(pages.inventory().isDisplayed(), "Inventory page should be displayed before adding to cart");
+        if (CartSeeder.isActive()) {
+            CartSeeder.add(productName);
+        } else {
+            pages.inventory().addProductToCart(productName);
+        }
     }
 
     /**
-     * Opens the cart and starts the checkout flow.
+     * Opens the cart (applying any seeded products first) and starts the checkout flow.
      */
     @And("user opens the cart and starts checkout")
     public void user_opens_the_cart_and_starts_checkout() {
-        inventoryPage.openCart();
-        cartPage.clickCheckout();
+        CartSeeder.apply(DriverFactory.getDriver());
+        pages.inventory().openCart();
+        pages.cart().clickCheckout();
     }
 
     /**
@@ -47,8 +51,8 @@ public class CheckoutSteps {
      */
     @And("user enters first name {string} last name {string} postal code {string} and continues")
     public void user_enters_checkout_info_and_continues(String firstName, String lastName, String postalCode) {
-        checkoutInformationPage.enterInformation(firstName, lastName, postalCode);
-        checkoutInformationPage.clickContinue();
+        pages.checkoutInformation().enterInformation(firstName, lastName, postalCode);
+        pages.checkoutInformation().clickContinue();
     }
 
     /**
@@ -56,7 +60,7 @@ public class CheckoutSteps {
      */
     @Then("checkout overview shows product {string}")
     public void checkout_overview_shows_product(String productName) {
-        Assert.assertTrue(checkoutOverviewPage.isProductListed(productName),
+        Assert.assertTrue(pages.checkoutOverview().isProductListed(productName),
                 "Expected product not found on checkout overview: " + productName);
     }
 
@@ -65,7 +69,7 @@ public class CheckoutSteps {
      */
     @Then("checkout info error should be {string}")
     public void checkout_info_error_should_be(String expectedError) {
-        String actual = checkoutInformationPage.getErrorMessage();
+        String actual = pages.checkoutInformation().getErrorMessage();
         Assert.assertEquals(actual, expectedError, "Checkout info validation error mismatch");
     }
 
@@ -74,7 +78,7 @@ public class CheckoutSteps {
      */
     @And("user finishes the checkout")
     public void user_finishes_the_checkout() {
-        checkoutOverviewPage.clickFinish();
+        pages.checkoutOverview().clickFinish();
     }
 
     /**
@@ -82,7 +86,7 @@ public class CheckoutSteps {
      */
     @Then("order completion page should be displayed")
     public void order_completion_page_should_be_displayed() {
-        Assert.assertTrue(checkoutCompletePage.isComplete(), "Order completion page not displayed");
+        Assert.assertTrue(pages.checkoutComplete().isComplete(), "Order completion page not displayed");
     }
 }
 
@@ -3,8 +3,7 @@ package stepdefinitions;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Then;
 import org.testng.Assert;
-import pages.InventoryPage;
-import utils.DriverFactory;
+import pages.PageRegistry;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -19,14 +18,18 @@ import java.util.List;
  */
 public class InventorySortSteps {
 
-    private final InventoryPage inventoryPage = new InventoryPage(DriverFactory.getDriver());
+    private final PageRegistry pages;
+
+    public InventorySortSteps(PageRegistry pages) {
+        this.pages = pages;
+    }
 
     /**
      * Applies a sort option on the UI.
      */
     @And("user sorts products by {string}")
     public void user_sorts_products_by(String sortName) {
-        inventoryPage.sort(sortName);
+        pages.inventory().sort(sortName);
     }
 
     /**
@@ -35,7 +38,7 @@ public class InventorySortSteps {
     @Then("products should be sorted by {string}")
     public void products_should_be_sorted_by(String sortName) {
         if (sortName.startsWith("Name")) {
-            List<String> names = inventoryPage.getProductNames();
+            List<String> names = pages.inventory().getProductNames();
             List<String> expected = new ArrayList<>(names);
             if (sortName.contains("A to Z")) {
                 expected.sort(String.CASE_INSENSITIVE_ORDER);
@@ -44,7 +47,7 @@ public class InventorySortSteps {
             }
             Assert.assertEquals(names, expected, "Product names order mismatch for sort: " + sortName);
         } else if (sortName.startsWith("Price")) {
-            List<Double> prices = inventoryPage.getProductPrices();
+            List<Double> prices = pages.inventory().getProductPrices();
             List<Double> expected = new ArrayList<>(prices);
             if (sortName.contains("low to high")) {
                 expected.sort(Comparator.naturalOrder());
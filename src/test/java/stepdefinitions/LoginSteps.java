@@ -4,9 +4,10 @@ import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.testng.Assert;
-import pages.InventoryPage;
-import pages.LoginPage;
+import pages.PageRegistry;
 import utils.DriverFactory;
+import utils.FastAuth;
+import utils.PerformanceProbe;
 import utils.WaitUtils;
 
 /**
@@ -17,23 +18,38 @@ import utils.WaitUtils;
  */
 public class LoginSteps {
 
-    LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
-    InventoryPage inventoryPage = new InventoryPage(DriverFactory.getDriver());
+    private final PageRegistry pages;
+
+    public LoginSteps(PageRegistry pages) {
+        this.pages = pages;
+    }
 
     /**
      * Navigates to the login page.
      */
     @Given("user is on SauceDemo login page")
     public void user_is_on_login_page() {
-        loginPage.open();
+        pages.login().open();
     }
 
     /**
      * Performs login with provided credentials.
+     * When {@link FastAuth} is active for the scenario, a session cached by an earlier login on
+     * this thread is restored instead of filling the form.
+     * With {@link PerformanceProbe} auto-probing on, the inventory page the login lands on is
+     * sampled (nothing is sampled when the login fails).
      */
     @When("user logs in with username {string} and password {string}")
     public void user_logs_in(String username, String password) {
-        loginPage.login(username, password);
+        if (!FastAuth.isActive()) {
+            pages.login().login(username, password);
+        } else if (!FastAuth.restore(DriverFactory.getDriver(), username, password)) {
+            pages.login().login(username, password);
+            FastAuth.remember(DriverFactory.getDriver(), username, password);
+        }
+        if (PerformanceProbe.isAutoProbe()) {
+            pages.login().sampleLandingPage();
+        }
     }
 
     /**
@@ -42,7 +58,7 @@ public class LoginSteps {
     @Then("inventory page should be displayed")
     public void inventory_page_should_be_displayed() {
         Assert.assertTrue(
-                inventoryPage.isDisplayed(),
+                pages.inventory().isDisplayed(),
                 "Inventory page is not displayed"
         );
     }
@@ -54,7 +70,7 @@ public class LoginSteps {
     public void error_message_should_be(String expected) {
         // Wait for potential error message to render
         WaitUtils.waitForPageLoad(DriverFactory.getDriver());
-        String actual = loginPage.getErrorMessage();
+        String actual = pages.login().getErrorMessage();
         Assert.assertEquals(actual, expected, "Invalid login error message mismatch");
     }
 }
@@ -0,0 +1,60 @@
+package stepdefinitions;
+
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import utils.DriverFactory;
+import utils.NetworkShaper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Step definitions checking that {@link NetworkShaper} answers fixture routes from local files
+ * (see src/test/resources/network-fixtures/routes.properties).
+ *
+ * @author NiteshJainQaTestology
+ */
+public class NetworkSteps {
+
+    private static final String BACKTRACE_URL = "https://events.backtrace.io/api/post?format=json&token=fixture-check";
+
+    private static final String POST_SCRIPT = String.join("\n",
+            "var done = arguments[arguments.length - 1];",
+            "fetch(arguments[0], { method: 'POST', body: '{}' })",
+            "    .then(function (response) { return response.text(); })",
+            "    .then(done, function (error) { done('request failed: ' + error); });");
+
+    private String response;
+
+    /**
+     * Skips the scenario unless Chrome sessions are shaped; fixtures need DevTools interception.
+     */
+    @Given("network fixtures are served")
+    public void network_fixtures_are_served() {
+        if (!NetworkShaper.isEnabled() || !"chrome".equalsIgnoreCase(System.getProperty("browser", "firefox"))) {
+            throw new SkipException("Needs -Dbrowser=chrome -Dnetwork.profile=fixtures, lean or strict");
+        }
+    }
+
+    /**
+     * Posts an error report from the page the way SauceDemo's error reporter does.
+     */
+    @When("the page sends an error report to Backtrace")
+    public void the_page_sends_an_error_report() {
+        response = String.valueOf(((JavascriptExecutor) DriverFactory.getDriver()).executeAsyncScript(POST_SCRIPT, BACKTRACE_URL));
+    }
+
+    /**
+     * Verifies the page received the fixture file's content, not a network response.
+     */
+    @Then("the error report should be acknowledged by the {string} fixture")
+    public void the_error_report_should_be_acknowledged(String fixture) throws IOException {
+        String expected = Files.readString(Paths.get(System.getProperty("network.fixtures.dir", "src/test/resources/network-fixtures"), fixture));
+        Assert.assertEquals(response, expected, "Error report was not answered by the fixture");
+    }
+}
@@ -0,0 +1,29 @@
+package stepdefinitions;
+
+import io.cucumber.java.en.Then;
+import org.testng.Assert;
+import utils.DriverFactory;
+import utils.PerformanceProbe;
+
+import java.util.List;
+
+/**
+ * Step definitions for page performance budgets (see {@link PerformanceProbe}).
+ * Budgets are configured with the perf.budget.* system properties.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class PerformanceSteps {
+
+    /**
+     * Samples the current page and fails if it, or any page sampled earlier in the scenario,
+     * exceeds a performance budget.
+     */
+    @Then("page performance should be within budget")
+    public void page_performance_should_be_within_budget() {
+        PerformanceProbe.Sample sample = PerformanceProbe.capture(DriverFactory.getDriver(), null);
+        Assert.assertNotNull(sample, "Could not read performance data for the current page");
+        List<String> violations = PerformanceProbe.scenarioViolations();
+        Assert.assertTrue(violations.isEmpty(), "Performance budget exceeded: " + violations);
+    }
+}
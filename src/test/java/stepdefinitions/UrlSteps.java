@@ -3,8 +3,10 @@ package stepdefinitions;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Then;
 import org.testng.Assert;
-import pages.InventoryPage;
+import pages.PageRegistry;
+import utils.CartSeeder;
 import utils.DriverFactory;
+import utils.SauceDemoStub;
 import utils.WaitUtils;
 
 /**
@@ -15,7 +17,11 @@ import utils.WaitUtils;
  */
 public class UrlSteps {
 
-    private final InventoryPage inventoryPage = new InventoryPage(DriverFactory.getDriver());
+    private final PageRegistry pages;
+
+    public UrlSteps(PageRegistry pages) {
+        this.pages = pages;
+    }
 
     /**
      * Navigates from inventory to the cart page.
@@ -23,12 +29,14 @@ public class UrlSteps {
     @And("user opens the cart page")
     public void user_opens_the_cart_page() {
         // Navigate to cart from inventory page
-        inventoryPage.openCart();
+        CartSeeder.apply(DriverFactory.getDriver());
+        pages.inventory().openCart();
         WaitUtils.waitForPageLoad(DriverFactory.getDriver());
     }
 
     /**
-     * Verifies the current browser URL matches the expected value.
+     * Verifies the current browser URL matches the expected value. Paths such as
+     * {@code /inventory.html} are resolved against the application base URL.
      */
     @Then("current page URL should be {string}")
     public void current_page_url_should_be(String expectedUrl) {
@@ -36,7 +44,7 @@ public class UrlSteps {
         // screenshot capture on assertion failure (see url_checks.feature).
         WaitUtils.waitForPageLoad(DriverFactory.getDriver());
         String actual = DriverFactory.getDriver().getCurrentUrl();
-        Assert.assertEquals(actual, expectedUrl, "Unexpected page URL");
+        Assert.assertEquals(actual, SauceDemoStub.url(expectedUrl), "Unexpected page URL");
     }
 }
 
@@ -0,0 +1,141 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * CartSeeder fills the SauceDemo cart by writing the app's {@code cart-contents} localStorage
+ * entry instead of clicking Add to cart on the inventory page.
+ * <p>
+ * Product names are resolved to ids from the catalog in {@code products.properties}, ignoring
+ * surrounding whitespace and case like {@code InventoryPage.addProductToCart} does. Added
+ * products are collected per thread and written with a single script call right before the
+ * cart is opened, so the cost does not grow with the number of items. The cart page reads
+ * localStorage when it renders, so it opens already populated (the inventory badge is not
+ * updated).
+ * <p>
+ * Configuration is controlled via system properties:
+ * - cart.seed: tag | true | false (default: tag)
+ *   - tag: only scenarios tagged {@value #SEED_CART_TAG}
+ *   - true: every scenario
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class CartSeeder {
+
+    public static final String SEED_CART_TAG = "@seedcart";
+
+    private static final String MODE = System.getProperty("cart.seed", "tag").toLowerCase();
+
+    private static final String CATALOG_RESOURCE = "products.properties";
+
+    private static final Map<String, Integer> catalog = loadCatalog();
+
+    // Merges the pending ids into the existing cart, keeping the app's numeric array format
+    private static final String SEED_SCRIPT = String.join("\n",
+            "var ids = arguments[0];",
+            "var cart = JSON.parse(window.localStorage.getItem('cart-contents') || '[]');",
+            "for (var i = 0; i < ids.length; i++) {",
+            "  if (cart.indexOf(ids[i]) < 0) { cart.push(ids[i]); }",
+            "}",
+            "window.localStorage.setItem('cart-contents', JSON.stringify(cart));");
+
+    private static final ThreadLocal<Set<Integer>> pending = ThreadLocal.withInitial(LinkedHashSet::new);
+
+    private CartSeeder() {}
+
+    /**
+     * Returns true if the current scenario should seed the cart instead of clicking.
+     */
+    public static boolean isActive() {
+        switch (MODE) {
+            case "true":
+                return true;
+            case "tag":
+                return ScenarioContext.hasTag(SEED_CART_TAG);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Queues a product to be written to the cart by {@link #apply(WebDriver)}.
+     *
+     * @throws IllegalStateException if the product is not in the catalog
+     */
+    public static void add(String productName) {
+        Integer id = catalog.get(productKey(productName));
+        if (id == null) {
+            throw new IllegalStateException("Product not in catalog " + CATALOG_RESOURCE + ": " + productName);
+        }
+        pending.get().add(id);
+    }
+
+    /**
+     * Writes queued products to the cart of the current page's origin. No-op if nothing is queued.
+     */
+    public static void apply(WebDriver driver) {
+        Set<Integer> ids = pending.get();
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Integer> toSeed = new ArrayList<>(ids);
+        ids.clear();
+        ((JavascriptExecutor) driver).executeScript(SEED_SCRIPT, toSeed);
+    }
+
+    /**
+     * Returns true if products are queued on this thread but not yet written to the cart.
+     */
+    public static boolean hasPending() {
+        return !pending.get().isEmpty();
+    }
+
+    /**
+     * Drops products queued on this thread that were never applied (e.g. the scenario failed).
+     */
+    public static void discard() {
+        pending.remove();
+    }
+
+    /**
+     * Normalised form of a product name that lookups compare: trimmed and lower case.
+     */
+    private static String productKey(String productName) {
+        return productName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Integer> loadCatalog() {
+        Properties properties = new Properties();
+        try (InputStream in = CartSeeder.class.getClassLoader().getResourceAsStream(CATALOG_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Catalog resource not found: " + CATALOG_RESOURCE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read catalog " + CATALOG_RESOURCE, e);
+        }
+        Map<String, Integer> byName = new HashMap<>();
+        for (String id : properties.stringPropertyNames()) {
+            byName.put(productKey(properties.getProperty(id)), Integer.parseInt(id.trim()));
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+}
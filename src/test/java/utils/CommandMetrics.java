@@ -0,0 +1,258 @@
+package utils;
+
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.service.ExtentService;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CommandMetrics is a {@link TrackedDriver.Listener} that records the latency of every WebDriver
+ * command (findElement, getText, executeScript, click, screenshots...).
+ * <p>
+ * Latencies are kept per command name and per locator the element was found with, each in an
+ * HdrHistogram {@link Recorder} (microseconds, two significant digits, sized to the values seen),
+ * the same lock-free recorder {@link StepLatencyRecorder} uses. Every thread records straight into
+ * the shared recorder of the key, so memory is bounded by the number of keys, not by the number of
+ * threads, and a virtual thread per scenario costs nothing once it has finished. Only the start
+ * times of in-flight commands and the element-to-locator tags are per thread, and they go with it.
+ * <p>
+ * {@link #export()} takes each recorder's histogram at suite end, writes a JSON file and adds the
+ * summary tables to the Extent report's test runner output.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - driver.metrics.enabled: true | false (default: true)
+ * - driver.metrics.file: output path (default: target/command-metrics.json)
+ *
+ * @author NiteshJainQaTestology
+ */
+public class CommandMetrics implements TrackedDriver.Listener {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("driver.metrics.enabled", "true"));
+
+    private static final Path OUTPUT_FILE =
+            Paths.get(System.getProperty("driver.metrics.file", "target/command-metrics.json"));
+
+    private static final CommandMetrics INSTANCE = new CommandMetrics();
+
+    // about 1% resolution; histograms grow to the largest latency recorded
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final Map<String, Recorder> byCommand = new ConcurrentHashMap<>();
+    private static final Map<String, Recorder> byLocator = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<CommandTimer> timer = ThreadLocal.withInitial(CommandTimer::new);
+
+    private CommandMetrics() {}
+
+    /**
+     * Returns true if command latencies should be recorded.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Listener to attach to tracked sessions.
+     */
+    static CommandMetrics listener() {
+        return INSTANCE;
+    }
+
+    /**
+     * Associates elements found outside findElement (e.g. by an in-page wait script) with the
+     * locator used, so their commands are attributed to it.
+     */
+    static void tag(WebElement element, By locator) {
+        if (ENABLED) {
+            timer.get().locators.put(unwrap(element), locator.toString());
+        }
+    }
+
+    @Override
+    public void beforeCommand(Object target, String command, Object[] args) {
+        timer.get().start();
+    }
+
+    @Override
+    public void afterCommand(Object target, String command, Object[] args, Object result) {
+        CommandTimer current = timer.get();
+        String locator = current.record(target, command, args);
+        if (locator != null && result != null) {
+            // remember where found elements came from, for their later commands
+            if (result instanceof WebElement) {
+                current.locators.put(unwrap(result), locator);
+            } else if (result instanceof List) {
+                for (Object element : (List<?>) result) {
+                    current.locators.put(unwrap(element), locator);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onCommandError(Object target, String command, Object[] args, RuntimeException e) {
+        // failed commands (e.g. NoSuchElement) are timed too, and keep the start stack balanced
+        timer.get().record(target, command, args);
+    }
+
+    /**
+     * Takes the histograms, writes them to the JSON file and adds the summary tables to the
+     * Extent report's test runner output. Call once the scenarios have finished, before
+     * {@link RunLog#writeSummary(boolean)} flushes the report.
+     */
+    public static synchronized void export() {
+        if (!ENABLED) {
+            return;
+        }
+        Map<String, Histogram> commands = snapshot(byCommand);
+        Map<String, Histogram> locators = snapshot(byLocator);
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("unit", "microseconds");
+        json.put("commands", toJson(commands));
+        json.put("locators", toJson(locators));
+        try {
+            if (OUTPUT_FILE.getParent() != null) {
+                Files.createDirectories(OUTPUT_FILE.getParent());
+            }
+            Files.writeString(OUTPUT_FILE, new Json().toJson(json));
+            RunLog.event("CommandMetrics", "Command latencies written to " + OUTPUT_FILE);
+        } catch (IOException e) {
+            RunLog.warn("CommandMetrics", "Could not write " + OUTPUT_FILE + ": " + e.getMessage());
+        }
+
+        try {
+            ExtentService.getInstance().addTestRunnerOutput(List.of(
+                    "<h6>WebDriver command latency</h6>",
+                    MarkupHelper.createTable(toTable("Command", commands)).getMarkup(),
+                    MarkupHelper.createTable(toTable("Locator", locators)).getMarkup()));
+        } catch (Exception e) {
+            RunLog.warn("CommandMetrics", "Could not add Extent summary: " + e.getMessage());
+        }
+    }
+
+    private static Object unwrap(Object element) {
+        return element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+    }
+
+    private static Map<String, Histogram> snapshot(Map<String, Recorder> recorders) {
+        Map<String, Histogram> result = new TreeMap<>();
+        recorders.forEach((key, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            if (histogram.getTotalCount() > 0) {
+                result.put(key, histogram);
+            }
+        });
+        return result;
+    }
+
+    private static void record(Map<String, Recorder> recorders, String key, long micros) {
+        recorders.computeIfAbsent(key, k -> new Recorder(SIGNIFICANT_DIGITS)).recordValue(micros);
+    }
+
+    private static Map<String, Object> toJson(Map<String, Histogram> histograms) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        histograms.forEach((key, histogram) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getTotalCount());
+            stats.put("total", total(histogram));
+            stats.put("mean", (long) histogram.getMean());
+            stats.put("p50", histogram.getValueAtPercentile(50));
+            stats.put("p90", histogram.getValueAtPercentile(90));
+            stats.put("p99", histogram.getValueAtPercentile(99));
+            stats.put("max", histogram.getMaxValue());
+            result.put(key, stats);
+        });
+        return result;
+    }
+
+    private static String[][] toTable(String keyTitle, Map<String, Histogram> histograms) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {keyTitle, "Count", "Total ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"});
+        histograms.entrySet().stream()
+                .sorted((a, b) -> Long.compare(total(b.getValue()), total(a.getValue())))
+                .forEach(entry -> {
+                    Histogram h = entry.getValue();
+                    rows.add(new String[] {entry.getKey(), String.valueOf(h.getTotalCount()), millis(total(h)),
+                            millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                            millis(h.getValueAtPercentile(99)), millis(h.getMaxValue())});
+                });
+        return rows.toArray(new String[0][]);
+    }
+
+    /**
+     * Total time in microseconds, from the mean (within the histogram's resolution).
+     */
+    private static long total(Histogram histogram) {
+        return Math.round(histogram.getMean() * histogram.getTotalCount());
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1_000.0);
+    }
+
+    /**
+     * Per-thread state: start times of in-flight commands and where the thread's elements were
+     * found. Only ever touched by its own thread.
+     */
+    private static final class CommandTimer {
+        private final Map<Object, String> locators = new WeakHashMap<>();
+        // calls can nest (e.g. a listener issuing commands), so keep a small stack of start times
+        private long[] starts = new long[8];
+        private int depth;
+
+        void start() {
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+            }
+            starts[depth++] = System.nanoTime();
+        }
+
+        /**
+         * Records the command that just finished.
+         *
+         * @return the locator the command used or acted on, or null if unknown
+         */
+        String record(Object target, String command, Object[] args) {
+            if (depth == 0) {
+                return null;
+            }
+            long micros = (System.nanoTime() - starts[--depth]) / 1_000;
+            CommandMetrics.record(byCommand, command, micros);
+
+            String locator;
+            if (args != null && args.length > 0 && args[0] instanceof By) {
+                locator = args[0].toString();
+            } else if (target instanceof WebElement) {
+                locator = locators.get(target);
+            } else {
+                locator = null;
+            }
+            if (locator != null) {
+                CommandMetrics.record(byLocator, locator, micros);
+            }
+            return locator;
+        }
+    }
+}
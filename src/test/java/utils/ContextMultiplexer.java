@@ -0,0 +1,277 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ContextMultiplexer runs several isolated scenarios in one Chrome process, so a worker costs a
+ * browser context (its own cookies, storage and cache) instead of a whole browser.
+ * <p>
+ * A host session starts the browser. Each scenario session is an incognito-like browser context
+ * created over DevTools ({@code Target.createBrowserContext}) with one page in it, driven by its
+ * own ChromeDriver session attached to the host browser through its debugger address. Every
+ * scenario therefore keeps a plain {@link WebDriver} with its own command pipeline, and commands
+ * of different scenarios run concurrently. Quitting a context session disposes of its browser
+ * context, which closes its pages and wipes its data; the host browser is quit when its last
+ * context is gone.
+ * <p>
+ * A session attached to a shared browser sees the pages of every context in it as window handles,
+ * so a pooled session is not reset window by window between leases: {@link #renew(WebDriver)}
+ * moves it into a fresh context and disposes of the old one instead.
+ * <p>
+ * Firefox (one WebDriver session per process, no user contexts in this Selenium version) always
+ * gets a browser per session; the factory falls back to that as well when a context cannot be
+ * created.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - driver.contexts.per.browser: scenario sessions sharing one Chrome process (default: 1, off)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ContextMultiplexer {
+
+    private static final int PER_BROWSER = Integer.getInteger("driver.contexts.per.browser", 1);
+
+    private static final List<Host> hosts = new ArrayList<>();
+
+    private static final Map<WebDriver, Lease> leases = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private static final AtomicInteger peakHosts = new AtomicInteger();
+    private static final AtomicInteger peakContexts = new AtomicInteger();
+    private static final AtomicLong opened = new AtomicLong();
+    private static final AtomicLong renewed = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ContextMultiplexer::shutdown, "context-multiplexer-shutdown"));
+    }
+
+    private ContextMultiplexer() {}
+
+    /**
+     * True when Chrome sessions should share browser processes.
+     */
+    public static boolean isEnabled() {
+        return PER_BROWSER > 1;
+    }
+
+    /**
+     * Opens a scenario session in a fresh browser context of a host browser that has room for
+     * it, starting a new host browser with the given options when none has.
+     *
+     * @param options options of the host browser (headless, window size...)
+     * @return the undecorated session, to be decorated with {@link #listenerFor(WebDriver)}
+     */
+    public static WebDriver open(ChromeOptions options) {
+        Host host = reserve(options);
+        String contextId = null;
+        try {
+            contextId = createContext(host);
+            String targetId = createPage(host, contextId);
+
+            ChromeOptions attach = new ChromeOptions();
+            attach.setExperimentalOption("debuggerAddress", host.debuggerAddress);
+            ChromeDriver session = DriverFactory.startChrome(attach);
+            // ChromeDriver window handles are DevTools target ids
+            session.switchTo().window(targetId);
+
+            leases.put(session, new Lease(host, contextId));
+            opened.incrementAndGet();
+            peakContexts.accumulateAndGet(leases.size(), Math::max);
+            return session;
+        } catch (RuntimeException e) {
+            dispose(host, contextId);
+            throw new IllegalStateException("Could not open a browser context in " + host.debuggerAddress, e);
+        }
+    }
+
+    /**
+     * Returns the listener that disposes of the session's browser context when the session is
+     * quit, or null when the session is not multiplexed.
+     */
+    static TrackedDriver.Listener listenerFor(WebDriver session) {
+        return leases.get(session);
+    }
+
+    /**
+     * True if the (tracked or raw) session lives in a browser context of a shared browser.
+     */
+    static boolean isShared(WebDriver session) {
+        return leaseOf(session) != null;
+    }
+
+    /**
+     * Moves a shared session into a new browser context with one blank page and disposes of its
+     * old context, which closes the old pages and drops their cookies, storage and cache. Other
+     * contexts of the browser are not touched.
+     *
+     * @return true if the session is now in a fresh context; false if it should be retired
+     */
+    static boolean renew(WebDriver session) {
+        Lease lease = leaseOf(session);
+        if (lease == null) {
+            return false;
+        }
+        String contextId = null;
+        try {
+            contextId = createContext(lease.host);
+            session.switchTo().window(createPage(lease.host, contextId));
+        } catch (RuntimeException e) {
+            if (contextId != null) {
+                disposeContext(lease.host, contextId);
+            }
+            return false;
+        }
+        String previous = lease.contextId;
+        lease.contextId = contextId;
+        disposeContext(lease.host, previous);
+        renewed.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Quits every host browser still running; their contexts go with them.
+     */
+    public static void shutdown() {
+        List<Host> running;
+        synchronized (hosts) {
+            running = new ArrayList<>(hosts);
+            hosts.clear();
+        }
+        for (Host host : running) {
+            try {
+                host.driver.quit();
+            } catch (Exception ignored) {
+            }
+        }
+        leases.clear();
+    }
+
+    /**
+     * Returns a one-line summary of contexts opened and the peak number of browsers and contexts.
+     */
+    public static String stats() {
+        return "contexts opened=" + opened.get() + " renewed=" + renewed.get() + " peak contexts=" + peakContexts.get()
+                + " peak browsers=" + peakHosts.get() + " (" + PER_BROWSER + " per browser)";
+    }
+
+    private static Host reserve(ChromeOptions options) {
+        synchronized (hosts) {
+            for (Host host : hosts) {
+                if (host.contexts < PER_BROWSER) {
+                    host.contexts++;
+                    return host;
+                }
+            }
+        }
+        // start the browser outside the lock, other threads may use existing hosts meanwhile
+        ChromeDriver driver = DriverFactory.startChrome(options);
+        Object chromeOptions = driver.getCapabilities().getCapability("goog:chromeOptions");
+        Object address = chromeOptions instanceof Map ? ((Map<?, ?>) chromeOptions).get("debuggerAddress") : null;
+        if (address == null) {
+            driver.quit();
+            throw new IllegalStateException("Chrome did not report a debugger address; cannot share the browser");
+        }
+        Host host = new Host(driver, String.valueOf(address));
+        synchronized (hosts) {
+            host.contexts = 1;
+            hosts.add(host);
+            peakHosts.accumulateAndGet(hosts.size(), Math::max);
+        }
+        return host;
+    }
+
+    private static Lease leaseOf(WebDriver session) {
+        WebDriver raw = session instanceof WrapsDriver ? ((WrapsDriver) session).getWrappedDriver() : session;
+        return leases.get(raw);
+    }
+
+    private static String createContext(Host host) {
+        return (String) host.driver.executeCdpCommand("Target.createBrowserContext",
+                Map.of("disposeOnDetach", false)).get("browserContextId");
+    }
+
+    /**
+     * Opens a blank page in the context and returns its target id, which ChromeDriver uses as the
+     * page's window handle.
+     */
+    private static String createPage(Host host, String contextId) {
+        return (String) host.driver.executeCdpCommand("Target.createTarget",
+                Map.of("url", "about:blank", "browserContextId", contextId)).get("targetId");
+    }
+
+    private static void disposeContext(Host host, String contextId) {
+        try {
+            host.driver.executeCdpCommand("Target.disposeBrowserContext", Map.of("browserContextId", contextId));
+        } catch (RuntimeException e) {
+            RunLog.warn("ContextMultiplexer", "Could not dispose of context " + contextId + ": " + e.getMessage());
+        }
+    }
+
+    private static void dispose(Host host, String contextId) {
+        try {
+            if (contextId != null) {
+                disposeContext(host, contextId);
+            }
+        } finally {
+            boolean last;
+            synchronized (hosts) {
+                last = --host.contexts == 0 && hosts.remove(host);
+            }
+            if (last) {
+                try {
+                    host.driver.quit();
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * A browser process shared by up to {@code driver.contexts.per.browser} scenario sessions.
+     */
+    private static final class Host {
+
+        private final ChromeDriver driver;
+        private final String debuggerAddress;
+        // guarded by hosts
+        private int contexts;
+
+        private Host(ChromeDriver driver, String debuggerAddress) {
+            this.driver = driver;
+            this.debuggerAddress = debuggerAddress;
+        }
+    }
+
+    /**
+     * Binds a scenario session to its browser context; disposes of the context once the session
+     * has been quit.
+     */
+    private static final class Lease implements TrackedDriver.Listener {
+
+        private final Host host;
+        // replaced when the session is renewed
+        private volatile String contextId;
+
+        private Lease(Host host, String contextId) {
+            this.host = host;
+            this.contextId = contextId;
+        }
+
+        @Override
+        public void afterCommand(Object target, String command, Object[] args, Object result) {
+            if ("quit".equals(command) && leases.values().remove(this)) {
+                dispose(host, contextId);
+            }
+        }
+    }
+}
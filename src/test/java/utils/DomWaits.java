@@ -0,0 +1,204 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * DomWaits resolves element waits inside the page instead of polling over the wire.
+ * <p>
+ * A single {@code MutationObserver} is installed once per page (re-installed automatically after
+ * navigation). Each wait is one {@code executeAsyncScript} call that registers a check with that
+ * observer and returns as soon as the DOM satisfies the condition, or {@code null} on timeout.
+ * Visibility can also change without a mutation (layout, media queries, a stylesheet loading), so
+ * each wait additionally re-checks at a low rate and once more when its timer expires.
+ * <p>
+ * Used by {@link WaitUtils}; when the engine cannot handle a wait (engine disabled, link-text or
+ * composite locator, driver without JavaScript, script error) the caller falls back to
+ * the regular polling {@code WebDriverWait}.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - wait.engine: observer | polling (default: observer)
+ * - wait.observer.poll.ms: backstop re-check interval of an in-page wait (default: 250)
+ *
+ * @author NiteshJainQaTestology
+ */
+final class DomWaits {
+
+    static final String VISIBLE = "visible";
+    static final String CLICKABLE = "clickable";
+    static final String INVISIBLE = "invisible";
+
+    private static final boolean ENABLED =
+            !"polling".equalsIgnoreCase(System.getProperty("wait.engine", "observer"));
+
+    private static final long POLL_MILLIS = Long.getLong("wait.observer.poll.ms", 250L);
+
+    // W3C default script timeout; raised per driver when a longer wait is requested
+    private static final long DEFAULT_SCRIPT_TIMEOUT_MILLIS = 30_000;
+    private static final long SCRIPT_TIMEOUT_MARGIN_MILLIS = 2_000;
+
+    private static final Map<WebDriver, Long> scriptTimeouts =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final String AWAIT_SCRIPT = String.join("\n",
+            "var locators = arguments[0], condition = arguments[1], timeoutMs = arguments[2], pollMs = arguments[3];",
+            "var done = arguments[arguments.length - 1];",
+            "var registry = window.__waitUtils;",
+            "if (!registry) {",
+            "  registry = window.__waitUtils = { checks: new Set() };",
+            "  var runChecks = function () { registry.checks.forEach(function (check) { check(); }); };",
+            "  registry.observer = new MutationObserver(runChecks);",
+            "  registry.observer.observe(document.documentElement,",
+            "      { subtree: true, childList: true, attributes: true, characterData: true });",
+            "  document.addEventListener('transitionend', runChecks, true);",
+            "  document.addEventListener('animationend', runChecks, true);",
+            "}",
+            "function find(locator) {",
+            "  switch (locator[0]) {",
+            "    case 'id': return document.getElementById(locator[1]);",
+            "    case 'class name': return document.getElementsByClassName(locator[1])[0] || null;",
+            "    case 'name': return document.getElementsByName(locator[1])[0] || null;",
+            "    case 'xpath': return document.evaluate(locator[1], document, null,",
+            "        XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;",
+            "    default: return document.querySelector(locator[1]);",
+            "  }",
+            "}",
+            "function visible(el) {",
+            "  if (!el || !el.isConnected) { return false; }",
+            "  var style = window.getComputedStyle(el);",
+            "  if (style.display === 'none' || style.visibility === 'hidden' || style.visibility === 'collapse'",
+            "      || parseFloat(style.opacity) === 0) { return false; }",
+            "  var rect = el.getBoundingClientRect();",
+            "  return el.getClientRects().length > 0 && rect.width > 0 && rect.height > 0;",
+            "}",
+            "function evaluate() {",
+            "  var found = [];",
+            "  for (var i = 0; i < locators.length; i++) {",
+            "    var el = find(locators[i]);",
+            "    var ok = condition === 'invisible' ? !visible(el)",
+            "        : visible(el) && (condition !== 'clickable' || !el.disabled);",
+            "    if (!ok) { return null; }",
+            "    found.push(el);",
+            "  }",
+            "  return condition === 'invisible' ? true : found;",
+            "}",
+            "var result = evaluate();",
+            "if (result !== null) { done(result); return; }",
+            "var finished = false, timer, poller;",
+            "function finish(value) {",
+            "  finished = true;",
+            "  registry.checks.delete(check);",
+            "  clearTimeout(timer);",
+            "  clearInterval(poller);",
+            "  done(value);",
+            "}",
+            "function check() {",
+            "  if (finished) { return; }",
+            "  var value = evaluate();",
+            "  if (value !== null) { finish(value); }",
+            "}",
+            "registry.checks.add(check);",
+            "poller = setInterval(check, pollMs);",
+            "timer = setTimeout(function () { if (!finished) { finish(evaluate()); } }, timeoutMs);");
+
+    static {
+        NavigationTracker.registerReadOnlyScript(AWAIT_SCRIPT);
+    }
+
+    private DomWaits() {}
+
+    /**
+     * Waits in-page until every locator satisfies the condition.
+     *
+     * @param condition one of {@link #VISIBLE}, {@link #CLICKABLE}, {@link #INVISIBLE}
+     * @param timeout   maximum time to wait
+     * @return matching elements in locator order (empty list for {@link #INVISIBLE}),
+     *         or {@code null} if the engine cannot handle this wait and the caller should poll
+     * @throws TimeoutException when the condition is not met within the timeout
+     */
+    static List<WebElement> await(WebDriver driver, List<By> locators, String condition, Duration timeout) {
+        if (!ENABLED || !(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        List<List<String>> remoteLocators = new ArrayList<>();
+        for (By locator : locators) {
+            List<String> remote = toRemote(locator);
+            if (remote == null) {
+                return null;
+            }
+            remoteLocators.add(remote);
+        }
+
+        Object result;
+        try {
+            ensureScriptTimeout(driver, timeout.toMillis());
+            result = ((JavascriptExecutor) driver).executeAsyncScript(AWAIT_SCRIPT,
+                    remoteLocators, condition, timeout.toMillis(), POLL_MILLIS);
+        } catch (WebDriverException e) {
+            // e.g. navigation unloaded the document mid-wait, or scripts are blocked on this page
+            return null;
+        }
+
+        if (result == null) {
+            throw new TimeoutException("Expected condition '" + condition + "' not met within "
+                    + timeout.toMillis() + " ms for " + locators);
+        }
+        List<WebElement> elements = new ArrayList<>();
+        if (result instanceof List) {
+            for (Object element : (List<?>) result) {
+                WebElement found = (WebElement) element;
+                CommandMetrics.tag(found, locators.get(elements.size()));
+                elements.add(found);
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Translates a locator into the strategy/value pair the in-page script understands.
+     *
+     * @return [strategy, value] or null when the locator cannot be evaluated in-page
+     */
+    private static List<String> toRemote(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        switch (parameters.using()) {
+            case "id":
+            case "class name":
+            case "name":
+            case "tag name":
+            case "css selector":
+            case "xpath":
+                return List.of(parameters.using(), String.valueOf(parameters.value()));
+            default:
+                // link text strategies have no cheap DOM equivalent; let WebDriverWait handle them
+                return null;
+        }
+    }
+
+    /**
+     * Makes sure the driver's async script timeout outlasts the in-page wait.
+     * Only issues a command when a longer timeout than the current one is needed.
+     */
+    private static void ensureScriptTimeout(WebDriver driver, long waitMillis) {
+        long required = waitMillis + SCRIPT_TIMEOUT_MARGIN_MILLIS;
+        Long current = scriptTimeouts.getOrDefault(driver, DEFAULT_SCRIPT_TIMEOUT_MILLIS);
+        if (required > current) {
+            driver.manage().timeouts().scriptTimeout(Duration.ofMillis(required));
+            scriptTimeouts.put(driver, required);
+        }
+    }
+}
@@ -2,9 +2,14 @@ package utils;
 
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * DriverFactory manages a single {@link WebDriver} instance per thread using {@link ThreadLocal}.
@@ -12,26 +17,57 @@ import org.openqa.selenium.firefox.FirefoxOptions;
  * Configuration is controlled via system properties:
  * - browser: chrome | firefox (default: firefox)
  * - headless: true | false (default: false)
+ * - driver.contexts.per.browser: Chrome sessions sharing one browser process, each in its own
+ *   browser context (default: 1, see {@link ContextMultiplexer})
+ * - process.tracking: track and reclaim the driver and browser processes started here
+ *   (default: true, see {@link ProcessTracker})
  * <p>
  * Usage pattern:
  * - Call {@link #initDriver()} in a test/setup hook
  * - Retrieve with {@link #getDriver()}
- * - Call {@link #quitDriver()} in a teardown hook
+ * - Call {@link #releaseDriver(boolean)} (or {@link #quitDriver()}) in a teardown hook
+ * <p>
+ * When {@link DriverPool} is enabled, sessions are leased from and returned to the pool
+ * instead of being started and quit for every scenario.
+ * <p>
+ * The binding is scenario-scoped: it is set in the before hook and removed on release. With
+ * {@link VirtualThreadExecution} each scenario runs on its own virtual thread, so a binding can
+ * never be seen by another scenario; a binding left over on a reused thread is retired on the
+ * next {@link #initDriver()} rather than silently replaced.
  *
  * @author NiteshJainQaTestology
  */
 public class DriverFactory {
 
-    private static ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
 
     /**
-     * Initializes the {@link WebDriver} for the current thread based on configuration.
-     * Applies headless options when requested and attempts to maximize the window.
+     * Binds a {@link WebDriver} to the current thread, leased from {@link DriverPool}
+     * when pooling is enabled, otherwise freshly created.
      */
     public static void initDriver() {
+        if (driver.get() != null) {
+            // previous scenario on this thread never released its session
+            releaseDriver(true);
+        }
+        driver.set(DriverPool.isEnabled() ? DriverPool.lease() : createDriver());
+    }
+
+    /**
+     * Starts a new browser session based on configuration.
+     * Applies headless options when requested and attempts to maximize the window.
+     * The session is decorated with a {@link NavigationTracker} so page-load waits can be skipped
+     * when no navigation happened since the last one. With a network profile, images, fonts and
+     * analytics are blocked or stubbed by {@link NetworkShaper} before the first page load, and
+     * {@link HarRecorder} subscribes to its network events when HAR capture is enabled.
+     *
+     * @return the new, unbound {@link WebDriver}
+     */
+    public static WebDriver createDriver() {
         String browser = System.getProperty("browser", "firefox").toLowerCase();
         boolean headless = Boolean.parseBoolean(System.getProperty("headless", "false"));
 
+        WebDriver webDriver;
         switch (browser) {
             case "chrome":
                 ChromeOptions chromeOptions = new ChromeOptions();
@@ -39,7 +75,10 @@ public class DriverFactory {
                     chromeOptions.addArguments("--headless=new");
                     chromeOptions.addArguments("--window-size=1920,1080");
                 }
-                driver.set(new ChromeDriver(chromeOptions));
+                HarRecorder.configure(chromeOptions);
+                webDriver = ContextMultiplexer.isEnabled() ? openContext(chromeOptions) : startChrome(chromeOptions);
+                NetworkShaper.attach(webDriver);
+                HarRecorder.attach(webDriver);
                 break;
             case "firefox":
             default:
@@ -47,14 +86,89 @@ public class DriverFactory {
                 if (headless) {
                     firefoxOptions.addArguments("--headless");
                 }
-                driver.set(new FirefoxDriver(firefoxOptions));
+                NetworkShaper.configure(firefoxOptions);
+                HarRecorder.configure(firefoxOptions);
+                webDriver = startFirefox(firefoxOptions);
+                NetworkShaper.attach(webDriver);
+                HarRecorder.attach(webDriver);
                 break;
         }
 
         try {
-            getDriver().manage().window().maximize();
+            webDriver.manage().window().maximize();
         } catch (Exception ignored) {
         }
+        return decorate(webDriver);
+    }
+
+    /**
+     * Opens a Chrome session in a browser context of a shared browser process, or in a browser
+     * of its own when no context can be created.
+     */
+    private static WebDriver openContext(ChromeOptions chromeOptions) {
+        try {
+            return ContextMultiplexer.open(chromeOptions);
+        } catch (IllegalStateException e) {
+            RunLog.warn("DriverFactory", e.getMessage() + "; starting a dedicated browser instead");
+            return startChrome(chromeOptions);
+        }
+    }
+
+    /**
+     * Starts a Chrome session on a driver service whose processes {@link ProcessTracker} tracks.
+     */
+    static ChromeDriver startChrome(ChromeOptions chromeOptions) {
+        return ProcessTracker.start(ChromeDriverService.createDefaultService(), chromeOptions,
+                service -> new ChromeDriver(service, chromeOptions));
+    }
+
+    /**
+     * Starts a Firefox session on a driver service whose processes {@link ProcessTracker} tracks.
+     */
+    static FirefoxDriver startFirefox(FirefoxOptions firefoxOptions) {
+        return ProcessTracker.start(GeckoDriverService.createDefaultService(), firefoxOptions,
+                service -> new FirefoxDriver(service, firefoxOptions));
+    }
+
+    /**
+     * Binds an externally created session (e.g. the in-memory fake used by the JMH benchmarks)
+     * to the current thread, decorated with the same listeners as {@link #createDriver()}.
+     * Release it with {@link #releaseDriver(boolean)} as usual.
+     *
+     * @return the decorated driver now returned by {@link #getDriver()}
+     */
+    public static WebDriver bindDriver(WebDriver session) {
+        if (driver.get() != null) {
+            releaseDriver(true);
+        }
+        WebDriver decorated = decorate(session);
+        driver.set(decorated);
+        return decorated;
+    }
+
+    /**
+     * Wraps the raw session in a {@link TrackedDriver} with the listeners used across the
+     * framework: {@link NavigationTracker} always, {@link CommandMetrics}, the
+     * {@link ParallelismController} latency timer and the {@link ScenarioDeadline} watchdog when
+     * enabled, and the {@link ContextMultiplexer} lease of a session that shares its browser process.
+     */
+    private static WebDriver decorate(WebDriver webDriver) {
+        List<TrackedDriver.Listener> listeners = new ArrayList<>();
+        listeners.add(NavigationTracker.register(webDriver));
+        if (CommandMetrics.isEnabled()) {
+            listeners.add(CommandMetrics.listener());
+        }
+        if (ParallelismController.isEnabled()) {
+            listeners.add(ParallelismController.listener());
+        }
+        if (ScenarioDeadline.isEnabled()) {
+            listeners.add(ScenarioDeadline.listener());
+        }
+        TrackedDriver.Listener contextLease = ContextMultiplexer.listenerFor(webDriver);
+        if (contextLease != null) {
+            listeners.add(contextLease);
+        }
+        return new TrackedDriver(webDriver, listeners.toArray(new TrackedDriver.Listener[0]));
     }
 
     /**
@@ -64,12 +178,33 @@ public class DriverFactory {
         return driver.get();
     }
 
+    /**
+     * Releases the {@link WebDriver} bound to the current thread. Pooled sessions go back to
+     * {@link DriverPool} (and are retired when the scenario failed); others are quit.
+     *
+     * @param failed true if the scenario that used the session failed
+     */
+    public static void releaseDriver(boolean failed) {
+        WebDriver current = getDriver();
+        if (current == null) {
+            return;
+        }
+        try {
+            if (DriverPool.isEnabled()) {
+                DriverPool.release(current, failed);
+            } else {
+                current.quit();
+            }
+        } finally {
+            driver.remove();
+        }
+    }
+
     /**
      * Quits and removes the {@link WebDriver} instance for the current thread.
-     * Always call this in teardown to avoid driver leaks between tests.
+     * A pooled session is retired rather than returned for reuse.
      */
     public static void quitDriver() {
-        getDriver().quit();
-        driver.remove();
+        releaseDriver(true);
     }
 }
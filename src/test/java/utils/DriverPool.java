@@ -0,0 +1,400 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DriverPool keeps a bounded set of warm browser sessions and leases them to scenario threads,
+ * so a scenario only pays the browser start-up cost when no idle session is available.
+ * <p>
+ * Between leases a session is reset (extra windows closed, cookies and web storage cleared,
+ * including the application's own when the session ended elsewhere, navigated to about:blank). A session sharing its browser process with other scenarios
+ * ({@link ContextMultiplexer}) gets a fresh browser context instead, since its window handles
+ * include the other scenarios' pages. A session is retired (quit) instead of being reused when:
+ * - the scenario that held it failed
+ * - it has served the maximum number of leases
+ * - the reset itself failed
+ * <p>
+ * Configuration is controlled via system properties:
+ * - driver.pool.enabled: true | false (default: true)
+ * - driver.pool.size: maximum live sessions (default: dataproviderthreadcount, else 10)
+ * - driver.pool.max.uses: leases per session before it is retired (default: 20)
+ * - driver.pool.lease.timeout.seconds: how long a lease waits for a free session (default: 120)
+ * <p>
+ * Sessions can be started ahead of time with {@link #prewarm(int)} so the first scenario
+ * on each worker thread finds a running browser. The suite starts one per worker thread as soon as
+ * it starts; once the first runner knows how many scenarios it will run, it quits the surplus with
+ * {@link #trimIdle(int)}, which also covers sessions that are still starting.
+ * <p>
+ * Metrics (hits, misses, retirements, reset time) are available through {@link #metricsSummary()},
+ * which the suite adds to the run summary.
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class DriverPool {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("driver.pool.enabled", "true"));
+
+    private static final int MAX_SIZE = Integer.parseInt(System.getProperty("driver.pool.size",
+            System.getProperty("dataproviderthreadcount", "10")));
+
+    private static final int MAX_USES =
+            Integer.parseInt(System.getProperty("driver.pool.max.uses", "20"));
+
+    private static final long LEASE_TIMEOUT_SECONDS =
+            Long.parseLong(System.getProperty("driver.pool.lease.timeout.seconds", "120"));
+
+    private static final long IDLE_POLL_MILLIS = 250;
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "try { window.localStorage.clear(); } catch (e) {}"
+                    + " try { window.sessionStorage.clear(); } catch (e) {}";
+
+    // Idle sessions; most recently released first so hot sessions stay hot
+    private static final LinkedBlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+
+    // One permit per live session (idle, leased or starting)
+    private static final Semaphore capacity = new Semaphore(MAX_SIZE);
+
+    private static final Map<WebDriver, PooledDriver> leased =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    // Idle sessions a pre-warm may still add to, as last set by trimIdle
+    private static final AtomicInteger idleLimit = new AtomicInteger(Integer.MAX_VALUE);
+    private static final AtomicLong prewarmed = new AtomicLong();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong retired = new AtomicLong();
+    private static final AtomicLong resets = new AtomicLong();
+    private static final AtomicLong resetNanos = new AtomicLong();
+    private static final AtomicLong leaseWaitNanos = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+    }
+
+    private DriverPool() {}
+
+    /**
+     * Maximum number of live sessions (driver.pool.size).
+     */
+    public static int maxSize() {
+        return MAX_SIZE;
+    }
+
+    /**
+     * Returns true if scenario sessions should be leased from the pool rather than created per scenario.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Leases a session for the calling thread. Reuses an idle session when available (hit),
+     * otherwise starts a new one if the pool is below its maximum size (miss), otherwise
+     * waits for another thread to release one.
+     *
+     * @return a clean {@link WebDriver} session
+     * @throws IllegalStateException when no session becomes available within the lease timeout
+     */
+    public static WebDriver lease() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(LEASE_TIMEOUT_SECONDS);
+        try {
+            while (true) {
+                PooledDriver pooled = idle.pollFirst();
+                if (pooled != null) {
+                    return checkOut(pooled, hits);
+                }
+                if (capacity.tryAcquire()) {
+                    try {
+                        return checkOut(new PooledDriver(DriverFactory.createDriver()), misses);
+                    } catch (RuntimeException e) {
+                        capacity.release();
+                        throw e;
+                    }
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("No browser session became available within "
+                            + LEASE_TIMEOUT_SECONDS + "s (driver.pool.size=" + MAX_SIZE + ")");
+                }
+                // Wake up periodically in case a session was retired and capacity freed up
+                pooled = idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+                if (pooled != null) {
+                    return checkOut(pooled, hits);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser session", e);
+        } finally {
+            leaseWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts up to {@code count} sessions concurrently in the background and parks them as idle.
+     * Returns immediately; scenario threads that lease while a session is still starting wait
+     * for it instead of starting another browser. Never exceeds the pool size.
+     *
+     * @param count number of sessions to start
+     */
+    public static void prewarm(int count) {
+        int toStart = 0;
+        while (toStart < count && capacity.tryAcquire()) {
+            toStart++;
+        }
+        if (toStart == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger threadIndex = new AtomicInteger();
+        AtomicInteger pending = new AtomicInteger(toStart);
+        ExecutorService starter = Executors.newFixedThreadPool(toStart, r -> {
+            Thread thread = new Thread(r, "driver-prewarm-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < toStart; i++) {
+            starter.execute(() -> {
+                try {
+                    PooledDriver pooled = new PooledDriver(DriverFactory.createDriver());
+                    if (park(pooled)) {
+                        prewarmed.incrementAndGet();
+                    } else {
+                        retire(pooled);
+                    }
+                } catch (Exception e) {
+                    capacity.release();
+                    RunLog.warn("DriverPool", "Pre-warm of a session failed: " + e.getMessage());
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        RunLog.event("DriverPool", String.format("Pre-warmed %d session(s) in %d ms",
+                                prewarmed.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                    }
+                }
+            });
+        }
+        starter.shutdown();
+    }
+
+    /**
+     * Returns a leased session to the pool. Failed or worn-out sessions are retired;
+     * others are reset and made available to the next lease.
+     *
+     * @param driver session previously obtained from {@link #lease()}
+     * @param failed true if the scenario that used the session failed
+     */
+    public static void release(WebDriver driver, boolean failed) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled == null) {
+            // Not ours (e.g. created while the pool was disabled); just make sure it does not leak
+            quietlyQuit(driver);
+            return;
+        }
+        if (failed || pooled.uses >= MAX_USES) {
+            retire(pooled);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean clean = ContextMultiplexer.isShared(driver) ? ContextMultiplexer.renew(driver) : reset(driver);
+        resetNanos.addAndGet(System.nanoTime() - start);
+        resets.incrementAndGet();
+        if (clean) {
+            idle.offerFirst(pooled);
+        } else {
+            retire(pooled);
+        }
+    }
+
+    /**
+     * Forgets a leased session that is being killed from another thread (a hung session, see
+     * {@link ScenarioDeadline}) and frees its place at once, so a replacement can start while the
+     * scenario that held it is still unwinding. Releasing the session later only quits it.
+     */
+    public static void abandon(WebDriver driver) {
+        if (leased.remove(driver) != null) {
+            capacity.release();
+            retired.incrementAndGet();
+        }
+    }
+
+    /**
+     * Quits idle sessions, least recently used first, until at most {@code keep} are left. Used
+     * when fewer scenarios may run at once, so surplus browsers stop holding memory. Sessions a
+     * pre-warm is still starting are quit as soon as they are up if they would exceed {@code keep}.
+     *
+     * @param keep number of idle sessions to keep
+     * @return number of sessions quit
+     */
+    public static int trimIdle(int keep) {
+        idleLimit.set(Math.max(0, keep));
+        int trimmed = 0;
+        while (idle.size() > Math.max(0, keep)) {
+            PooledDriver pooled = idle.pollLast();
+            if (pooled == null) {
+                break;
+            }
+            retire(pooled);
+            trimmed++;
+        }
+        return trimmed;
+    }
+
+    /**
+     * Quits every idle session. Leased sessions are left to their owners.
+     * The pool remains usable afterwards; new leases simply start fresh sessions.
+     */
+    public static void shutdown() {
+        PooledDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            retire(pooled);
+        }
+    }
+
+    /**
+     * True once any session has been leased, i.e. when {@link #metricsSummary()} has something to say.
+     */
+    public static boolean wasUsed() {
+        return hits.get() + misses.get() > 0;
+    }
+
+    /**
+     * Returns a one-line summary of pool activity.
+     */
+    public static String metricsSummary() {
+        long resetCount = resets.get();
+        long leases = hits.get() + misses.get();
+        return String.format("leases=%d hits=%d misses=%d prewarmed=%d retired=%d resets=%d avgResetMs=%.1f avgLeaseWaitMs=%.1f",
+                leases, hits.get(), misses.get(), prewarmed.get(), retired.get(), resetCount,
+                resetCount == 0 ? 0.0 : resetNanos.get() / 1_000_000.0 / resetCount,
+                leases == 0 ? 0.0 : leaseWaitNanos.get() / 1_000_000.0 / leases);
+    }
+
+    /**
+     * Number of leases served by an already running session.
+     */
+    public static long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of leases that had to start a new browser session.
+     */
+    public static long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Adds a freshly pre-warmed session to the idle set unless that would exceed the limit of the
+     * last {@link #trimIdle(int)}.
+     */
+    private static synchronized boolean park(PooledDriver pooled) {
+        if (idle.size() >= idleLimit.get()) {
+            return false;
+        }
+        idle.offerLast(pooled);
+        return true;
+    }
+
+    private static WebDriver checkOut(PooledDriver pooled, AtomicLong counter) {
+        counter.incrementAndGet();
+        pooled.uses++;
+        leased.put(pooled.driver, pooled);
+        return pooled.driver;
+    }
+
+    /**
+     * Brings a session back to a blank state: clears cookies and storage in every window,
+     * closes all but one window, clears the application origin's cookies and storage from the
+     * remaining window and navigates to about:blank.
+     *
+     * @return true if the session is clean and can be reused
+     */
+    private static boolean reset(WebDriver driver) {
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            String keep = handles.iterator().next();
+            for (String handle : handles) {
+                if (handles.size() > 1) {
+                    driver.switchTo().window(handle);
+                }
+                // Cookies and storage are scoped to the current document's origin, so clear them per window
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+                driver.manage().deleteAllCookies();
+                if (!handle.equals(keep)) {
+                    driver.close();
+                }
+            }
+            if (handles.size() > 1) {
+                driver.switchTo().window(keep);
+            }
+            // A scenario may end on another origin, about:blank or an error page; the login cookie
+            // and the cart live on the application origin, so clear that one explicitly
+            String appUrl = SauceDemoStub.baseUrl();
+            if (!originOf(appUrl).equals(originOf(driver.getCurrentUrl()))) {
+                driver.get(appUrl);
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+                driver.manage().deleteAllCookies();
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (Exception ignored) {
+            return false;
+        }
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() + "://" + uri.getAuthority();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "";
+        }
+    }
+
+    private static void retire(PooledDriver pooled) {
+        try {
+            quietlyQuit(pooled.driver);
+        } finally {
+            capacity.release();
+            retired.incrementAndGet();
+        }
+    }
+
+    private static void quietlyQuit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * A pooled session and the number of times it has been leased.
+     */
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
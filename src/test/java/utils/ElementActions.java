@@ -7,31 +7,62 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.TakesScreenshot;
-import org.openqa.selenium.OutputType;
 import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * ElementActions centralizes robust, higher-level WebElement interactions.
  * <p>
  * Each action:
- * - Waits for a safe precondition (visible/clickable) via {@link WaitUtils}
+ * - Waits for a safe precondition (visible/clickable) via {@link WaitUtils}, drawing on the
+ *   scenario's time budget ({@link ScenarioDeadline})
  * - Wraps Selenium calls with consistent error handling
  * - Attaches diagnostic details (screenshot + message) to Extent on failure
  * <p>
  * All methods are static for ease of use inside Page Objects and Steps.
+ * <p>
+ * Forms can be filled in a batch with {@link #fillForm(WebDriver, Map)}; the batch mode is
+ * controlled via system property form.fill.mode: native | script (default native).
  *
  * @author NiteshJainQaTestology
  */
 public final class ElementActions {
 
+    /**
+     * How {@link #fillForm(WebDriver, Map, FillMode)} enters values.
+     */
+    public enum FillMode {
+        /** Clears all fields in one script, then types each value with real key events. */
+        NATIVE_KEYS,
+        /** Sets all values in one script through the native value setter and fires input/change events. */
+        SCRIPT
+    }
+
+    private static final FillMode DEFAULT_FILL_MODE =
+            "script".equalsIgnoreCase(System.getProperty("form.fill.mode", "native"))
+                    ? FillMode.SCRIPT : FillMode.NATIVE_KEYS;
+
+    // Uses the prototype value setter so React-controlled inputs see the change, then fires the
+    // events frameworks listen to. Returns the index of the first field that failed, or -1.
+    private static final String SET_VALUES_SCRIPT = String.join("\n",
+            "var elements = arguments[0], values = arguments[1];",
+            "for (var i = 0; i < elements.length; i++) {",
+            "  try {",
+            "    var el = elements[i];",
+            "    var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype",
+            "        : el instanceof HTMLSelectElement ? HTMLSelectElement.prototype : HTMLInputElement.prototype;",
+            "    Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, values[i]);",
+            "    el.dispatchEvent(new Event('input', { bubbles: true }));",
+            "    el.dispatchEvent(new Event('change', { bubbles: true }));",
+            "  } catch (e) {",
+            "    return i;",
+            "  }",
+            "}",
+            "return -1;");
+
     private ElementActions() {}
 
     /**
@@ -69,6 +100,88 @@ public final class ElementActions {
         }
     }
 
+    /**
+     * Fills several fields at once using the configured {@link FillMode} (form.fill.mode).
+     *
+     * @param driver current {@link WebDriver}
+     * @param fields locator to value, in the order the fields should be filled (use a LinkedHashMap)
+     */
+    public static void fillForm(WebDriver driver, Map<By, CharSequence> fields) {
+        fillForm(driver, fields, DEFAULT_FILL_MODE);
+    }
+
+    /**
+     * Fills several fields at once: waits for all of them in one condition, clears (or sets) them
+     * in one script, and in {@link FillMode#NATIVE_KEYS} mode types each non-empty value.
+     * Failures are attributed to the individual field that caused them.
+     *
+     * @param driver current {@link WebDriver}
+     * @param fields locator to value, in the order the fields should be filled (use a LinkedHashMap);
+     *               fields mapped to null are left untouched in both modes
+     * @param mode   how values are entered
+     * @throws RuntimeException naming the failing field (also attaches evidence to the report)
+     */
+    public static void fillForm(WebDriver driver, Map<By, CharSequence> fields, FillMode mode) {
+        List<By> locators = new ArrayList<>();
+        fields.forEach((locator, value) -> {
+            if (value != null) {
+                locators.add(locator);
+            }
+        });
+        if (locators.isEmpty()) {
+            return;
+        }
+        List<WebElement> elements;
+        try {
+            elements = WaitUtils.waitForAllVisible(driver, locators);
+        } catch (Exception e) {
+            By missing = firstNotVisible(driver, locators);
+            attachFailure("fillForm", missing, e);
+            throw new RuntimeException("Failed to fill form; field not visible: " + missing, e);
+        }
+
+        List<String> values = new ArrayList<>();
+        for (By locator : locators) {
+            values.add(mode == FillMode.SCRIPT ? String.valueOf(fields.get(locator)) : "");
+        }
+        int failedIndex;
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(SET_VALUES_SCRIPT, elements, values);
+            failedIndex = result instanceof Number ? ((Number) result).intValue() : -1;
+        } catch (Exception e) {
+            // Script unavailable: fall back to clearing field by field
+            failedIndex = -1;
+            for (WebElement element : elements) {
+                clearWithSelectAll(element);
+            }
+            if (mode == FillMode.SCRIPT) {
+                mode = FillMode.NATIVE_KEYS;
+            }
+        }
+        if (failedIndex >= 0) {
+            By locator = locators.get(failedIndex);
+            IllegalStateException e = new IllegalStateException("Could not set value of " + locator);
+            attachFailure("fillForm", locator, e);
+            throw new RuntimeException("Failed to fill field: " + locator, e);
+        }
+        if (mode == FillMode.SCRIPT) {
+            return;
+        }
+
+        for (int i = 0; i < locators.size(); i++) {
+            CharSequence text = fields.get(locators.get(i));
+            if (text.length() == 0) {
+                continue;
+            }
+            try {
+                elements.get(i).sendKeys(text);
+            } catch (Exception e) {
+                attachFailure("fillForm", locators.get(i), e);
+                throw new RuntimeException("Failed to fill field: " + locators.get(i), e);
+            }
+        }
+    }
+
     /**
      * Gets the visible text of the element.
      *
@@ -124,11 +237,14 @@ public final class ElementActions {
 
     /**
      * Returns true if the element is visible and displayed; false if not found or not visible.
+     * Fails rather than answering false once the scenario's budget is used up.
      */
     public static boolean isDisplayed(WebDriver driver, By locator) {
         try {
             WebElement element = WaitUtils.waitForVisible(driver, locator);
             return element.isDisplayed();
+        } catch (ScenarioDeadline.ExceededException e) {
+            throw e;
         } catch (Exception ignored) {
             return false;
         }
@@ -136,11 +252,14 @@ public final class ElementActions {
 
     /**
      * Returns true if the element is enabled; false if not found or not visible.
+     * Fails rather than answering false once the scenario's budget is used up.
      */
     public static boolean isEnabled(WebDriver driver, By locator) {
         try {
             WebElement element = WaitUtils.waitForVisible(driver, locator);
             return element.isEnabled();
+        } catch (ScenarioDeadline.ExceededException e) {
+            throw e;
         } catch (Exception ignored) {
             return false;
         }
@@ -359,37 +478,38 @@ public final class ElementActions {
         }
     }
 
+    /**
+     * Returns the first locator whose element is missing or hidden (used to attribute a batch failure).
+     */
+    private static By firstNotVisible(WebDriver driver, List<By> locators) {
+        for (By locator : locators) {
+            try {
+                List<WebElement> found = driver.findElements(locator);
+                if (found.isEmpty() || !found.get(0).isDisplayed()) {
+                    return locator;
+                }
+            } catch (Exception ignored) {
+                return locator;
+            }
+        }
+        return locators.get(0);
+    }
+
     /**
      * Attaches a failure message and screenshot to the Extent report for easier debugging.
+     * The screenshot is captured here; writing it to disk happens in {@link EvidenceService}.
      */
     private static void attachFailure(String action, By locator, Exception e) {
         try {
-            // Log failure in Extent
+            // Log failure in Extent (fails outside a Cucumber step, which must not cost the screenshot)
             ExtentCucumberAdapter.addTestStepLog("Action failed: " + action + " on " + locator + " - " + e.getMessage());
-
-            // Save screenshot file for Extent and link it
-            WebDriver driver = DriverFactory.getDriver();
-            File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String safeName = action + "_" + sanitize(locator.toString());
-            String timestamp = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS").format(LocalDateTime.now());
-            String fileName = safeName + "_" + timestamp + ".png";
-
-            Path screenshotsDir = Paths.get("extent-reports", "screenshots");
-            Files.createDirectories(screenshotsDir);
-            Path dest = screenshotsDir.resolve(fileName);
-            Files.copy(src.toPath(), dest);
-
-            String relativePath = "./screenshots/" + fileName;
-            ExtentCucumberAdapter.addTestStepScreenCaptureFromPath(relativePath);
         } catch (Exception ignored) {
         }
-    }
-
-    /**
-     * Replaces characters that may be unsafe in filenames with underscores.
-     */
-    private static String sanitize(String text) {
-        return text.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
+        try {
+            // Queue screenshot for Extent and link it
+            EvidenceService.captureAndSubmit(DriverFactory.getDriver(), action + "_" + locator);
+        } catch (Exception ignored) {
+        }
     }
 }
 
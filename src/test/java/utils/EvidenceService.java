@@ -0,0 +1,193 @@
+package utils;
+
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EvidenceService captures failure screenshots once and writes them off the scenario thread.
+ * <p>
+ * The scenario thread only grabs the PNG bytes and queues them; a bounded background writer
+ * stores them under extent-reports/screenshots. The file is linked in the Extent step right away
+ * (the adapter tracks the current step per thread, so linking has to happen on the scenario
+ * thread), using the relative path the writer is about to produce.
+ * <p>
+ * When the queue is full the caller either waits for space (block) or the screenshot is skipped
+ * and counted (drop). Pending writes are flushed at suite end by the suite listener and on JVM exit.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - evidence.queue.capacity (default 32)
+ * - evidence.queue.policy: block | drop (default block)
+ * - evidence.writer.threads (default 1)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class EvidenceService {
+
+    private static final int QUEUE_CAPACITY =
+            Integer.parseInt(System.getProperty("evidence.queue.capacity", "32"));
+
+    private static final boolean DROP_WHEN_FULL =
+            "drop".equalsIgnoreCase(System.getProperty("evidence.queue.policy", "block"));
+
+    private static final int WRITER_THREADS =
+            Integer.parseInt(System.getProperty("evidence.writer.threads", "1"));
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 30_000;
+
+    // Same location as configured in extent.properties (screenshot.dir / screenshot.rel.path)
+    private static final Path SCREENSHOTS_DIR = Paths.get("extent-reports", "screenshots");
+    private static final String RELATIVE_DIR = "./screenshots/";
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+
+    private static final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private static final AtomicInteger pending = new AtomicInteger();
+    private static final AtomicLong sequence = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+
+    static {
+        for (int i = 1; i <= WRITER_THREADS; i++) {
+            Thread writer = new Thread(EvidenceService::drain, "evidence-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(FLUSH_TIMEOUT_MILLIS), "evidence-flush"));
+    }
+
+    private EvidenceService() {}
+
+    /**
+     * Takes a screenshot of the current page as PNG bytes.
+     *
+     * @return PNG bytes, or null if the driver is gone or cannot take screenshots
+     */
+    public static byte[] capture(WebDriver driver) {
+        try {
+            return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Queues a screenshot for writing and links it in the current Extent step.
+     *
+     * @param png  PNG bytes from {@link #capture(WebDriver)}
+     * @param name descriptive name; unsafe filename characters are replaced
+     * @return the report-relative path, or null if the screenshot was dropped
+     */
+    public static String submit(byte[] png, String name) {
+        if (png == null) {
+            return null;
+        }
+        String fileName = sanitize(name) + "_" + TIMESTAMP.format(LocalDateTime.now())
+                + "_" + sequence.incrementAndGet() + ".png";
+        Runnable write = () -> write(png, fileName);
+
+        pending.incrementAndGet();
+        try {
+            if (DROP_WHEN_FULL) {
+                if (!queue.offer(write)) {
+                    pending.decrementAndGet();
+                    dropped.incrementAndGet();
+                    return null;
+                }
+            } else {
+                queue.put(write);
+            }
+        } catch (InterruptedException e) {
+            pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        String relativePath = RELATIVE_DIR + fileName;
+        try {
+            ExtentCucumberAdapter.addTestStepScreenCaptureFromPath(relativePath);
+        } catch (Exception ignored) {
+        }
+        return relativePath;
+    }
+
+    /**
+     * Captures the current page and queues it under the given name.
+     *
+     * @return the report-relative path, or null if nothing was captured
+     */
+    public static String captureAndSubmit(WebDriver driver, String name) {
+        return submit(capture(driver), name);
+    }
+
+    /**
+     * Waits until every queued screenshot has been written.
+     *
+     * @return true if the queue drained within the timeout
+     */
+    public static boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a one-line summary of written, dropped and failed screenshots.
+     */
+    public static String stats() {
+        return "screenshots written=" + written.get() + " dropped=" + dropped.get()
+                + " failed=" + failed.get() + " pending=" + pending.get();
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                queue.take().run();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static void write(byte[] png, String fileName) {
+        try {
+            Files.createDirectories(SCREENSHOTS_DIR);
+            Files.write(SCREENSHOTS_DIR.resolve(fileName), png);
+            written.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces characters that may be unsafe in filenames with underscores.
+     */
+    private static String sanitize(String text) {
+        return text.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
+    }
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FastAuth skips the UI login for scenarios that only need an authenticated session.
+ * <p>
+ * The first login per user goes through the login form; the {@code session-username} cookie
+ * SauceDemo sets is then cached for the run. The cache is shared rather than per thread so that
+ * it also works when every scenario runs on its own virtual thread. Later logins
+ * with the same credentials add the cookie and open {@code inventory.html} directly, skipping
+ * the form fill and submit. Logins that fail (wrong password, locked out user) never produce
+ * the cookie, so they are never cached and always run through the UI.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - auth.fast: tag | true | false (default: tag)
+ *   - tag: only scenarios tagged {@value #FAST_AUTH_TAG}
+ *   - true: every scenario except those tagged {@value #UI_LOGIN_TAG}
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class FastAuth {
+
+    public static final String FAST_AUTH_TAG = "@fastauth";
+    public static final String UI_LOGIN_TAG = "@uilogin";
+
+    private static final String SESSION_COOKIE = "session-username";
+
+    // Rebuild the session through the UI when the cached cookie is about to expire
+    private static final long EXPIRY_MARGIN_MILLIS = 30_000;
+
+    private static final String MODE = System.getProperty("auth.fast", "tag").toLowerCase();
+
+    private static final Map<String, Cookie> sessions = new ConcurrentHashMap<>();
+
+    private FastAuth() {}
+
+    /**
+     * Returns true if the current scenario may use the cookie shortcut.
+     */
+    public static boolean isActive() {
+        if (ScenarioContext.hasTag(UI_LOGIN_TAG)) {
+            return false;
+        }
+        switch (MODE) {
+            case "true":
+                return true;
+            case "tag":
+                return ScenarioContext.hasTag(FAST_AUTH_TAG);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Restores a cached session for the credentials and opens the inventory page.
+     * The browser must already be on a SauceDemo page (cookies are set for the current domain).
+     *
+     * @return true if the session was restored; false if the caller must log in through the UI
+     */
+    public static boolean restore(WebDriver driver, String username, String password) {
+        Cookie cookie = sessions.get(key(username, password));
+        if (cookie == null) {
+            return false;
+        }
+        Date expiry = cookie.getExpiry();
+        if (expiry != null && expiry.getTime() - EXPIRY_MARGIN_MILLIS < System.currentTimeMillis()) {
+            sessions.remove(key(username, password));
+            return false;
+        }
+        driver.manage().addCookie(cookie);
+        driver.get(URI.create(driver.getCurrentUrl()).resolve("inventory.html").toString());
+        WaitUtils.waitForPageLoad(driver);
+        return true;
+    }
+
+    /**
+     * Caches the session cookie after a UI login, if the login produced one.
+     */
+    public static void remember(WebDriver driver, String username, String password) {
+        Cookie cookie = driver.manage().getCookieNamed(SESSION_COOKIE);
+        if (cookie != null) {
+            sessions.put(key(username, password), cookie);
+        }
+    }
+
+    private static String key(String username, String password) {
+        return username + '\u0000' + password;
+    }
+}
@@ -0,0 +1,421 @@
+package utils;
+
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.bidi.Network;
+import org.openqa.selenium.bidi.network.BaseParameters;
+import org.openqa.selenium.bidi.network.BeforeRequestSent;
+import org.openqa.selenium.bidi.network.FetchError;
+import org.openqa.selenium.bidi.network.FetchTimingInfo;
+import org.openqa.selenium.bidi.network.Header;
+import org.openqa.selenium.bidi.network.RequestData;
+import org.openqa.selenium.bidi.network.ResponseData;
+import org.openqa.selenium.bidi.network.ResponseDetails;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HarRecorder streams the browser traffic of each scenario to a HAR 1.2 file, so a slow scenario
+ * can be split into application, network and wait time.
+ * <p>
+ * Sessions are created with a WebDriver BiDi connection (Chrome and Firefox) and subscribed to
+ * request, response and fetch-error events once, when they are created. Between
+ * {@link #start(WebDriver, String)} and {@link #stop(boolean, long)} the events of the session
+ * go into a bounded queue that a writer thread drains straight to
+ * extent-reports/har; only requests still in flight are held in memory, so memory stays flat
+ * however long the scenario runs. When the queue is full (the writer cannot keep up) events are
+ * dropped and counted rather than stalling the browser connection.
+ * <p>
+ * Failed scenarios and scenarios slower than the threshold keep their HAR and get a link in the
+ * Extent report; the others are deleted unless all HAR files are kept.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - har.enabled: true | false (default: false)
+ * - har.keep: failed-slow | all (default: failed-slow)
+ * - har.slow.ms: scenarios at least this long keep their HAR (default: 10000)
+ * - har.buffer.size: events queued per scenario before dropping (default: 1024)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class HarRecorder {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("har.enabled", "false"));
+
+    private static final boolean KEEP_ALL = "all".equalsIgnoreCase(System.getProperty("har.keep", "failed-slow"));
+
+    private static final long SLOW_MILLIS = Long.getLong("har.slow.ms", 10_000L);
+
+    private static final int BUFFER_SIZE = Integer.getInteger("har.buffer.size", 1024);
+
+    // Next to the screenshots, so the report links resolve the same way
+    private static final Path HAR_DIR = Paths.get("extent-reports", "har");
+    private static final String RELATIVE_DIR = "./har/";
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+
+    private static final Object STOP = new Object();
+
+    private static final Json JSON = new Json();
+
+    private static final Map<WebDriver, Tap> taps = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ThreadLocal<Capture> current = new ThreadLocal<>();
+
+    private static final AtomicLong sequence = new AtomicLong();
+    private static final AtomicLong kept = new AtomicLong();
+    private static final AtomicLong entries = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private HarRecorder() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Requests the BiDi connection the recorder listens on. Call before the session is created.
+     */
+    public static void configure(MutableCapabilities options) {
+        if (ENABLED) {
+            options.setCapability("webSocketUrl", true);
+        }
+    }
+
+    /**
+     * Subscribes to the network events of a freshly created, undecorated session. Events are
+     * discarded until a scenario starts recording.
+     */
+    public static void attach(WebDriver webDriver) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            Network network = new Network(webDriver);
+            Tap tap = new Tap();
+            network.onBeforeRequestSent(tap::offer);
+            network.onResponseCompleted(tap::offer);
+            network.onFetchError(tap::offer);
+            taps.put(webDriver, tap);
+        } catch (RuntimeException e) {
+            RunLog.warn("HarRecorder", "No BiDi connection, traffic is not recorded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts streaming the session's traffic to a new HAR file for the scenario on this thread.
+     */
+    public static void start(WebDriver driver, String scenarioName) {
+        if (!ENABLED || driver == null) {
+            return;
+        }
+        WebDriver key = driver instanceof WrapsDriver ? ((WrapsDriver) driver).getWrappedDriver() : driver;
+        Tap tap = taps.get(key);
+        if (tap == null) {
+            return;
+        }
+        String fileName = sanitize(scenarioName) + "_" + TIMESTAMP.format(LocalDateTime.now())
+                + "_" + sequence.incrementAndGet() + ".har";
+        try {
+            Files.createDirectories(HAR_DIR);
+            Capture capture = new Capture(tap, scenarioName, HAR_DIR.resolve(fileName));
+            tap.capture = capture;
+            current.set(capture);
+        } catch (IOException e) {
+            RunLog.warn("HarRecorder", "Could not create " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops recording for the scenario on this thread and completes its HAR file. Failed or slow
+     * scenarios keep the file and get a link in the current Extent step.
+     *
+     * @return the report-relative path of the kept HAR, or null
+     */
+    public static String stop(boolean failed, long elapsedMillis) {
+        Capture capture = current.get();
+        if (capture == null) {
+            return null;
+        }
+        current.remove();
+        capture.finish();
+        boolean slow = elapsedMillis >= SLOW_MILLIS;
+        if (!failed && !slow && !KEEP_ALL) {
+            try {
+                Files.deleteIfExists(capture.file);
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+        kept.incrementAndGet();
+        String relativePath = RELATIVE_DIR + capture.file.getFileName();
+        if (failed || slow) {
+            try {
+                ExtentCucumberAdapter.addTestStepLog("<a href='" + relativePath + "' target='_blank'>Network HAR ("
+                        + (failed ? "failed" : "slow, " + elapsedMillis + " ms") + ", " + capture.written
+                        + " requests)</a>");
+            } catch (Exception ignored) {
+            }
+        }
+        return relativePath;
+    }
+
+    /**
+     * Returns a one-line summary of HAR files kept, entries written and events dropped.
+     */
+    public static String stats() {
+        return "HAR files kept=" + kept.get() + " entries=" + entries.get() + " dropped events=" + dropped.get();
+    }
+
+    /**
+     * Per-session event sink; hands events to the scenario currently recording, if any.
+     */
+    private static final class Tap {
+
+        private volatile Capture capture;
+
+        private void offer(Object event) {
+            Capture target = capture;
+            if (target != null && !target.queue.offer(event)) {
+                target.droppedEvents++;
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * One scenario's HAR file and the writer thread that fills it.
+     */
+    private static final class Capture {
+
+        private final Tap tap;
+        private final String scenarioName;
+        private final Path file;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final Map<String, BeforeRequestSent> inFlight = new LinkedHashMap<>();
+        private final Thread writer;
+        private volatile long droppedEvents;
+        private long written;
+        private Writer out;
+
+        private Capture(Tap tap, String scenarioName, Path file) throws IOException {
+            this.tap = tap;
+            this.scenarioName = scenarioName;
+            this.file = file;
+            this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            out.write("{\"log\":{\"version\":\"1.2\",\"creator\":{\"name\":\"utils.HarRecorder\",\"version\":\"1.0\"},"
+                    + "\"pages\":[],\"entries\":[\n");
+            this.writer = Thread.ofVirtual().name("har-writer").start(this::drain);
+        }
+
+        private void drain() {
+            try {
+                for (Object event = queue.take(); event != STOP; event = queue.take()) {
+                    handle(event);
+                }
+                // requests that never completed are written as such
+                for (BeforeRequestSent request : inFlight.values()) {
+                    write(request, null, "no response before the scenario ended");
+                }
+                out.write("\n],\"comment\":" + JSON.toJson(scenarioName + (droppedEvents > 0
+                        ? " (" + droppedEvents + " events dropped)" : "")) + "}}\n");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                RunLog.warn("HarRecorder", "Could not write " + file + ": " + e.getMessage());
+            } finally {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void handle(Object event) throws IOException {
+            if (event instanceof BeforeRequestSent) {
+                BeforeRequestSent request = (BeforeRequestSent) event;
+                if (inFlight.size() < BUFFER_SIZE) {
+                    inFlight.put(key(request), request);
+                }
+            } else if (event instanceof ResponseDetails) {
+                ResponseDetails response = (ResponseDetails) event;
+                inFlight.remove(key(response));
+                write(response, response.getResponseData(), null);
+            } else if (event instanceof FetchError) {
+                FetchError error = (FetchError) event;
+                inFlight.remove(key(error));
+                write(error, null, error.getErrorText());
+            }
+        }
+
+        private void finish() {
+            tap.capture = null;
+            try {
+                // the queue may be full; the writer frees a slot within one event
+                queue.put(STOP);
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void write(BaseParameters event, ResponseData response, String error) throws IOException {
+            if (written > 0) {
+                out.write(",\n");
+            }
+            out.write(JSON.toJson(entry(event.getRequest(), response, error, event.getTimestamp())));
+            written++;
+            entries.incrementAndGet();
+        }
+    }
+
+    private static String key(BaseParameters event) {
+        return event.getRequest().getRequestId() + "/" + event.getRedirectCount();
+    }
+
+    private static Map<String, Object> entry(RequestData request, ResponseData response, String error, long eventMillis) {
+        FetchTimingInfo timing = request.getTimings();
+        double start = timing != null && timing.getRequestTime() > 0
+                ? timing.getTimeOrigin() + timing.getRequestTime() : eventMillis;
+        Map<String, Object> timings = timings(timing);
+
+        Map<String, Object> har = new LinkedHashMap<>();
+        har.put("startedDateTime", Instant.ofEpochMilli((long) start).toString());
+        har.put("time", timings.values().stream().mapToDouble(v -> Math.max(0, (Double) v)).sum());
+
+        Map<String, Object> req = new LinkedHashMap<>();
+        req.put("method", request.getMethod());
+        req.put("url", request.getUrl());
+        req.put("httpVersion", response == null ? "" : response.getProtocol());
+        req.put("cookies", List.of());
+        req.put("headers", headers(request.getHeaders()));
+        req.put("queryString", queryString(request.getUrl()));
+        req.put("headersSize", request.getHeadersSize() == null ? -1 : request.getHeadersSize());
+        req.put("bodySize", -1);
+        har.put("request", req);
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        Map<String, Object> content = new LinkedHashMap<>();
+        if (response == null) {
+            res.put("status", 0);
+            res.put("statusText", error == null ? "" : error);
+            res.put("httpVersion", "");
+            res.put("cookies", List.of());
+            res.put("headers", List.of());
+            content.put("size", 0);
+            content.put("mimeType", "");
+            res.put("redirectURL", "");
+            res.put("headersSize", -1);
+            res.put("bodySize", -1);
+            res.put("_error", error);
+        } else {
+            res.put("status", response.getStatus());
+            res.put("statusText", response.getStatusText());
+            res.put("httpVersion", response.getProtocol());
+            res.put("cookies", List.of());
+            res.put("headers", headers(response.getHeaders()));
+            content.put("size", response.getBodySize());
+            content.put("mimeType", response.getMimeType());
+            res.put("redirectURL", header(response.getHeaders(), "location"));
+            res.put("headersSize", response.getHeadersSize());
+            res.put("bodySize", response.getBytesReceived());
+            res.put("_fromCache", response.isFromCache());
+        }
+        res.put("content", content);
+        har.put("response", res);
+        har.put("cache", Map.of());
+        har.put("timings", timings);
+        return har;
+    }
+
+    /**
+     * HAR timings from the fetch timing info (milliseconds relative to the time origin);
+     * phases the browser did not report are -1.
+     */
+    private static Map<String, Object> timings(FetchTimingInfo t) {
+        Map<String, Object> timings = new LinkedHashMap<>();
+        if (t == null) {
+            timings.put("send", 0.0);
+            timings.put("wait", 0.0);
+            timings.put("receive", 0.0);
+            return timings;
+        }
+        timings.put("blocked", phase(t.getRequestTime(), t.getDnsStart() > 0 ? t.getDnsStart() : t.getRequestStart()));
+        timings.put("dns", phase(t.getDnsStart(), t.getDnsEnd()));
+        timings.put("connect", phase(t.getConnectStart(), t.getConnectEnd()));
+        timings.put("ssl", phase(t.getTlsStart(), t.getConnectEnd()));
+        timings.put("send", 0.0);
+        timings.put("wait", Math.max(0, phase(t.getRequestStart(), t.getResponseStart())));
+        timings.put("receive", Math.max(0, phase(t.getResponseStart(), t.getResponseEnd())));
+        return timings;
+    }
+
+    private static double phase(double from, double to) {
+        return from > 0 && to >= from ? to - from : -1.0;
+    }
+
+    private static List<Map<String, String>> headers(List<Header> headers) {
+        List<Map<String, String>> list = new ArrayList<>();
+        if (headers != null) {
+            for (Header header : headers) {
+                list.add(Map.of("name", header.getName(),
+                        "value", header.getValue() == null ? "" : String.valueOf(header.getValue().getValue())));
+            }
+        }
+        return list;
+    }
+
+    private static String header(List<Header> headers, String name) {
+        if (headers != null) {
+            for (Header header : headers) {
+                if (name.equalsIgnoreCase(header.getName()) && header.getValue() != null) {
+                    return header.getValue().getValue();
+                }
+            }
+        }
+        return "";
+    }
+
+    private static List<Map<String, String>> queryString(String url) {
+        List<Map<String, String>> list = new ArrayList<>();
+        String query;
+        try {
+            query = URI.create(url).getRawQuery();
+        } catch (IllegalArgumentException e) {
+            return list;
+        }
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                list.add(Map.of("name", eq < 0 ? pair : pair.substring(0, eq), "value", eq < 0 ? "" : pair.substring(eq + 1)));
+            }
+        }
+        return list;
+    }
+
+    private static String sanitize(String text) {
+        String safe = text == null ? "scenario" : text.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
+        return safe.length() > 80 ? safe.substring(0, 80) : safe;
+    }
+}
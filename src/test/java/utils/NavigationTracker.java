@@ -0,0 +1,105 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NavigationTracker is a {@link TrackedDriver.Listener} that keeps a per-driver navigation epoch,
+ * so {@link WaitUtils#waitForPageLoad(WebDriver)} can skip the readyState round trip when the
+ * current document has already been confirmed ready.
+ * <p>
+ * Any command that may change the current document (get, navigate, click, sendKeys, submit,
+ * actions, window/frame switches, scripts...) bumps the epoch before it runs. Commands that only
+ * read state (find, getText, getCurrentUrl, screenshots...) and scripts registered via
+ * {@link #registerReadOnlyScript(String)} leave it unchanged.
+ * <p>
+ * Drivers not created through {@link DriverFactory} are not tracked and always perform the wait.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class NavigationTracker implements TrackedDriver.Listener {
+
+    private static final Set<String> READ_ONLY_METHODS = Set.of(
+            "findElement", "findElements", "getText", "getAttribute", "getDomAttribute", "getDomProperty",
+            "getCssValue", "isDisplayed", "isEnabled", "isSelected", "getTagName", "getLocation", "getSize",
+            "getRect", "getAccessibleName", "getAriaRole", "getShadowRoot", "getCurrentUrl", "getTitle",
+            "getPageSource", "getWindowHandle", "getWindowHandles", "getScreenshotAs", "activeElement");
+
+    private static final Set<String> readOnlyScripts = ConcurrentHashMap.newKeySet();
+
+    private static final Map<WebDriver, NavigationTracker> trackers =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile long readyEpoch = -1;
+
+    private NavigationTracker() {}
+
+    /**
+     * Creates and registers a tracker for a driver that is about to be decorated with it.
+     *
+     * @param driver the undecorated driver
+     * @return listener to attach to the tracked session
+     */
+    static NavigationTracker register(WebDriver driver) {
+        NavigationTracker tracker = new NavigationTracker();
+        trackers.put(driver, tracker);
+        return tracker;
+    }
+
+    /**
+     * Returns the tracker for a (tracked) driver, or null if the driver is not tracked.
+     */
+    static NavigationTracker of(WebDriver driver) {
+        WebDriver key = driver instanceof WrapsDriver ? ((WrapsDriver) driver).getWrappedDriver() : driver;
+        return trackers.get(key);
+    }
+
+    /**
+     * Marks a script as side-effect free, so running it does not invalidate page readiness.
+     * Pass the exact (constant) script string used with executeScript/executeAsyncScript.
+     */
+    public static void registerReadOnlyScript(String script) {
+        readOnlyScripts.add(script);
+    }
+
+    /**
+     * Current navigation epoch; changes whenever the current document may have changed.
+     */
+    long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Returns true if readiness was confirmed for the given epoch.
+     */
+    boolean isReady(long currentEpoch) {
+        return readyEpoch == currentEpoch;
+    }
+
+    /**
+     * Records that the document was ready at the given epoch.
+     */
+    void markReady(long confirmedEpoch) {
+        readyEpoch = confirmedEpoch;
+    }
+
+    @Override
+    public void beforeCommand(Object target, String command, Object[] args) {
+        if (READ_ONLY_METHODS.contains(command)) {
+            return;
+        }
+        if (("executeScript".equals(command) || "executeAsyncScript".equals(command))
+                && args != null && args.length > 0 && readOnlyScripts.contains(args[0])) {
+            return;
+        }
+        epoch.incrementAndGet();
+    }
+}
@@ -0,0 +1,534 @@
+package utils;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.Network;
+import org.openqa.selenium.bidi.network.AddInterceptParameters;
+import org.openqa.selenium.bidi.network.InterceptPhase;
+import org.openqa.selenium.bidi.network.UrlPattern;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * NetworkShaper intercepts browser traffic so page loads skip what no assertion needs (images,
+ * fonts, analytics) and selected requests are answered from local fixture files.
+ * <p>
+ * Chrome uses DevTools without pausing ordinary requests: blocked hosts, URL patterns and resource
+ * types (by file extension) are handed to the browser once with {@code Network.setBlockedURLs}, so
+ * it fails them itself, and {@code Fetch.enable} pauses only the requests matching a fixture route,
+ * which are answered from disk. Hosts that a fixture route serves are left out of the block list.
+ * Blocked requests are counted from the browser's loading-failed events.
+ * <p>
+ * Firefox uses WebDriver BiDi where the protocol allows it: requests to blocked hosts are
+ * intercepted and failed. BiDi in this Selenium version can neither continue nor fulfil an
+ * intercepted request, so URL patterns and fixtures are Chrome only; image and font types are
+ * blocked with Firefox preferences instead (these requests are never issued, so not counted).
+ * <p>
+ * The browser never downloads a blocked resource, so its size and fetch time are learned once
+ * with a background HEAD request and kept in a size catalogue across runs; {@link #report()}
+ * sums them as bytes and (serial) fetch time saved. The catalogue is keyed by URL without query
+ * string, so cache busters and tracking parameters do not grow it. Requests to blocked hosts are
+ * counted but never probed: they are beacons whose size says nothing, and probing them would
+ * send the very traffic the block is there to avoid.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - network.profile: off | lean | strict | fixtures (default: off)
+ *   lean blocks images, fonts, media and analytics hosts; strict also stylesheets;
+ *   fixtures only serves fixture routes
+ * - network.block.types: comma-separated types replacing the profile's
+ *   (image, font, media, stylesheet, script)
+ * - network.block.hosts: extra comma-separated host names to block
+ * - network.block.urls: extra comma-separated URL globs to block, * matches anything (Chrome only)
+ * - network.fixtures.dir: directory with routes.properties, "URL glob = file" (default:
+ *   src/test/resources/network-fixtures)
+ * - network.sizes.file: size catalogue (default: .cache/network-sizes.properties)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class NetworkShaper {
+
+    private static final String PROFILE =
+            System.getProperty("network.profile", "off").trim().toLowerCase(Locale.ROOT);
+
+    private static final boolean ENABLED = !"off".equals(PROFILE) && !PROFILE.isEmpty();
+
+    private static final Path FIXTURES_DIR =
+            Paths.get(System.getProperty("network.fixtures.dir", "src/test/resources/network-fixtures"));
+
+    private static final Path SIZES_FILE =
+            Paths.get(System.getProperty("network.sizes.file", ".cache/network-sizes.properties"));
+
+    private static final Set<String> ANALYTICS_HOSTS = Set.of(
+            "events.backtrace.io", "www.google-analytics.com", "www.googletagmanager.com", "stats.g.doubleclick.net");
+
+    private static final Map<String, Set<String>> TYPE_EXTENSIONS = Map.of(
+            "image", Set.of("png", "jpg", "jpeg", "gif", "webp", "avif", "svg", "ico"),
+            "font", Set.of("woff", "woff2", "ttf", "otf", "eot"),
+            "media", Set.of("mp4", "webm", "ogg", "mp3", "wav"),
+            "stylesheet", Set.of("css"),
+            "script", Set.of("js", "mjs"));
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "json", "application/json", "js", "text/javascript", "css", "text/css", "html", "text/html",
+            "svg", "image/svg+xml", "png", "image/png", "jpg", "image/jpeg", "woff2", "font/woff2",
+            "txt", "text/plain");
+
+    private static final Set<String> BLOCKED_TYPES = blockedTypes();
+    private static final Set<String> BLOCKED_HOSTS = blockedHosts();
+    private static final List<String> BLOCKED_URL_GLOBS = globs(System.getProperty("network.block.urls", ""));
+    private static final List<Pattern> BLOCKED_URLS =
+            BLOCKED_URL_GLOBS.stream().map(NetworkShaper::glob).collect(Collectors.toList());
+    // URL glob -> file, in key order
+    private static final Map<String, Path> FIXTURES = ENABLED ? loadRoutes() : Map.of();
+    private static final Map<Pattern, Path> FIXTURE_PATTERNS = compile(FIXTURES);
+
+    private static final Map<Path, byte[]> fixtureBodies = new ConcurrentHashMap<>();
+
+    // url -> {bytes, fetch millis}, learned off the critical path
+    private static final Map<String, long[]> sizes = ENABLED ? loadSizes() : new ConcurrentHashMap<>();
+    private static final Set<String> measuring = ConcurrentHashMap.newKeySet();
+
+    private static final Map<String, LongAdder> blockedByType = new ConcurrentHashMap<>();
+    private static final Set<String> blockedUrls = ConcurrentHashMap.newKeySet();
+    private static final LongAdder fixturesServed = new LongAdder();
+
+    private static volatile HttpClient client;
+
+    private NetworkShaper() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Adds the Firefox preferences (blocked images and fonts) and, when hosts are blocked, the
+     * BiDi capability that {@link #attach(WebDriver)} needs. Call before the session is created.
+     */
+    public static void configure(FirefoxOptions options) {
+        if (!ENABLED) {
+            return;
+        }
+        if (BLOCKED_TYPES.contains("image")) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (BLOCKED_TYPES.contains("font")) {
+            options.addPreference("gfx.downloadable_fonts.enabled", false);
+        }
+        if (!BLOCKED_HOSTS.isEmpty()) {
+            options.setCapability("webSocketUrl", true);
+        }
+    }
+
+    /**
+     * Attaches the interceptor to a freshly created, undecorated session. Browsers without a
+     * usable protocol keep running unshaped, with the reason logged.
+     */
+    public static void attach(WebDriver webDriver) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            if (isFirefox(webDriver)) {
+                attachBiDi(webDriver);
+            } else if (webDriver instanceof HasDevTools) {
+                attachDevTools(((HasDevTools) webDriver).getDevTools());
+            } else {
+                RunLog.warn("NetworkShaper", "No DevTools connection, traffic is not shaped");
+            }
+        } catch (RuntimeException e) {
+            RunLog.warn("NetworkShaper", "Interception unavailable, traffic is not shaped: " + e.getMessage());
+        }
+    }
+
+    private static boolean isFirefox(WebDriver webDriver) {
+        return webDriver instanceof HasCapabilities
+                && "firefox".equalsIgnoreCase(((HasCapabilities) webDriver).getCapabilities().getBrowserName());
+    }
+
+    private static void attachBiDi(WebDriver webDriver) {
+        if (!FIXTURES.isEmpty() || !BLOCKED_URLS.isEmpty()) {
+            RunLog.warn("NetworkShaper", "Fixtures and URL patterns need DevTools, only hosts and types are blocked");
+        }
+        if (BLOCKED_HOSTS.isEmpty()) {
+            return;
+        }
+        Network network = new Network(webDriver);
+        List<UrlPattern> patterns = new ArrayList<>();
+        for (String host : BLOCKED_HOSTS) {
+            patterns.add(new UrlPattern().hostname(host));
+        }
+        network.addIntercept(new AddInterceptParameters(InterceptPhase.BEFORE_REQUEST_SENT).urlPatterns(patterns));
+        network.onBeforeRequestSent(event -> {
+            if (event.isBlocked()) {
+                network.failRequest(event.getRequest().getRequestId());
+                recordBlocked("host", event.getRequest().getUrl());
+            }
+        });
+    }
+
+    private static void attachDevTools(DevTools devTools) {
+        devTools.createSessionIfThereIsNotOne();
+        List<String> blocked = blockedUrlPatterns();
+        if (!blocked.isEmpty()) {
+            // Network events only carry the URL when the request starts; keep it until it ends
+            Map<String, String> urls = new ConcurrentHashMap<>();
+            devTools.addListener(cdpEvent("Network.requestWillBeSent"), params ->
+                    urls.put((String) params.get("requestId"), (String) request(params).get("url")));
+            devTools.addListener(cdpEvent("Network.loadingFinished"), params -> urls.remove(params.get("requestId")));
+            devTools.addListener(cdpEvent("Network.loadingFailed"), params -> {
+                String url = urls.remove(params.get("requestId"));
+                if (url != null && "inspector".equals(params.get("blockedReason"))) {
+                    String reason = blockReason(url);
+                    recordBlocked(reason == null ? "url" : reason, url);
+                }
+            });
+            devTools.send(new Command<Void>("Network.enable", Map.of()));
+            devTools.send(new Command<Void>("Network.setBlockedURLs", Map.of("urls", blocked)));
+        }
+        if (!FIXTURES.isEmpty()) {
+            devTools.addListener(cdpEvent("Fetch.requestPaused"), params -> {
+                Object requestId = params.get("requestId");
+                Path file = fixtureFor((String) request(params).get("url"));
+                if (file == null) {
+                    devTools.send(new Command<Void>("Fetch.continueRequest", Map.of("requestId", requestId)));
+                } else {
+                    devTools.send(fulfil(requestId, file));
+                }
+            });
+            List<Map<String, Object>> patterns = new ArrayList<>();
+            for (String glob : FIXTURES.keySet()) {
+                patterns.add(Map.of("urlPattern", glob.replace("\\", "\\\\").replace("?", "\\?"),
+                        "requestStage", "Request"));
+            }
+            devTools.send(new Command<Void>("Fetch.enable", Map.of("patterns", patterns)));
+        }
+    }
+
+    private static Event<Map<String, Object>> cdpEvent(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> request(Map<String, Object> params) {
+        return (Map<String, Object>) params.get("request");
+    }
+
+    /**
+     * The block list handed to Chrome: blocked hosts (unless a fixture route serves them), the
+     * configured URL globs and one pattern per blocked file extension, with and without a query.
+     */
+    private static List<String> blockedUrlPatterns() {
+        List<String> patterns = new ArrayList<>();
+        for (String host : BLOCKED_HOSTS) {
+            if (FIXTURES.keySet().stream().noneMatch(glob -> glob.contains("://" + host + "/"))) {
+                patterns.add("*://" + host + "/*");
+            }
+        }
+        patterns.addAll(BLOCKED_URL_GLOBS);
+        for (String type : BLOCKED_TYPES) {
+            for (String extension : TYPE_EXTENSIONS.getOrDefault(type, Set.of())) {
+                patterns.add("*." + extension);
+                patterns.add("*." + extension + "?*");
+            }
+        }
+        return patterns;
+    }
+
+    private static Path fixtureFor(String url) {
+        for (Map.Entry<Pattern, Path> route : FIXTURE_PATTERNS.entrySet()) {
+            if (route.getKey().matcher(url).matches()) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Which block rule a URL the browser refused falls under, for the summary.
+     */
+    private static String blockReason(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (uri.getHost() != null && BLOCKED_HOSTS.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+            return "host";
+        }
+        for (Pattern pattern : BLOCKED_URLS) {
+            if (pattern.matcher(url).matches()) {
+                return "url";
+            }
+        }
+        String path = uri.getPath() == null ? "" : uri.getPath().toLowerCase(Locale.ROOT);
+        String extension = path.substring(path.lastIndexOf('.') + 1);
+        for (String type : BLOCKED_TYPES) {
+            if (path.contains(".") && TYPE_EXTENSIONS.getOrDefault(type, Set.of()).contains(extension)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static Command<Void> fulfil(Object requestId, Path file) {
+        byte[] body = fixtureBodies.computeIfAbsent(file, f -> {
+            try {
+                return Files.readAllBytes(f);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read network fixture " + f, e);
+            }
+        });
+        fixturesServed.increment();
+        String name = file.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return new Command<>("Fetch.fulfillRequest", Map.of(
+                "requestId", requestId,
+                "responseCode", 200,
+                "responseHeaders", List.of(
+                        Map.of("name", "Content-Type",
+                                "value", CONTENT_TYPES.getOrDefault(extension, "application/octet-stream")),
+                        Map.of("name", "Access-Control-Allow-Origin", "value", "*")),
+                "body", Base64.getEncoder().encodeToString(body)));
+    }
+
+    private static void recordBlocked(String reason, String url) {
+        blockedByType.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        if ("host".equals(reason)) {
+            return;
+        }
+        String key = sizeKey(url);
+        blockedUrls.add(key);
+        if (!sizes.containsKey(key) && measuring.add(key)) {
+            measure(key);
+        }
+    }
+
+    /**
+     * The URL without query string and fragment, which is also what gets probed.
+     */
+    private static String sizeKey(String url) {
+        int end = url.length();
+        int query = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (query >= 0) {
+            end = query;
+        }
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        return url.substring(0, end);
+    }
+
+    /**
+     * Learns the size and fetch time of a blocked resource with one HEAD request on a virtual
+     * thread, so the page load itself never waits for it.
+     */
+    private static void measure(String url) {
+        if (client == null) {
+            synchronized (NetworkShaper.class) {
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .connectTimeout(Duration.ofSeconds(5))
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .executor(Executors.newVirtualThreadPerTaskExecutor())
+                            .build();
+                }
+            }
+        }
+        long start = System.nanoTime();
+        java.net.http.HttpRequest head = java.net.http.HttpRequest.newBuilder(URI.create(url))
+                .method("HEAD", java.net.http.HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        client.sendAsync(head, BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (response != null) {
+                long bytes = response.headers().firstValueAsLong("Content-Length").orElse(0L);
+                sizes.put(url, new long[] {bytes, (System.nanoTime() - start) / 1_000_000});
+            }
+        });
+    }
+
+    /**
+     * One line for the suite summary: blocked requests per reason, fixtures served, and the
+     * bytes and fetch time those requests would have cost. Also saves the size catalogue.
+     */
+    public static String report() {
+        if (!ENABLED) {
+            return "network shaping off";
+        }
+        long bytes = 0;
+        long millis = 0;
+        int unknown = 0;
+        for (String url : blockedUrls) {
+            long[] size = sizes.get(url);
+            if (size == null) {
+                unknown++;
+            } else {
+                bytes += size[0];
+                millis += size[1];
+            }
+        }
+        saveSizes();
+        Map<String, Long> counts = new TreeMap<>();
+        blockedByType.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return String.format("profile %s: blocked %d requests %s (%d distinct resources), %d fixtures served, "
+                        + "saved ~%d KB and ~%d ms of serial fetch time%s",
+                PROFILE, counts.values().stream().mapToLong(Long::longValue).sum(), counts, blockedUrls.size(),
+                fixturesServed.sum(), bytes / 1024, millis,
+                unknown == 0 ? "" : " (" + unknown + " resources not measured)");
+    }
+
+    private static Set<String> blockedTypes() {
+        String override = System.getProperty("network.block.types");
+        if (override != null) {
+            return split(override);
+        }
+        switch (PROFILE) {
+            case "lean":
+                return Set.of("image", "font", "media");
+            case "strict":
+                return Set.of("image", "font", "media", "stylesheet");
+            case "off":
+            case "fixtures":
+                return Set.of();
+            default:
+                throw new IllegalStateException("Unknown network.profile '" + PROFILE
+                        + "', expected off, lean, strict or fixtures");
+        }
+    }
+
+    private static Set<String> blockedHosts() {
+        Set<String> hosts = new LinkedHashSet<>(split(System.getProperty("network.block.hosts", "")));
+        if ("lean".equals(PROFILE) || "strict".equals(PROFILE)) {
+            hosts.addAll(ANALYTICS_HOSTS);
+        }
+        return Set.copyOf(hosts);
+    }
+
+    private static Set<String> split(String list) {
+        return Arrays.stream(list.split(","))
+                .map(s -> s.trim().toLowerCase(Locale.ROOT))
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static List<String> globs(String list) {
+        List<String> globs = new ArrayList<>();
+        for (String glob : list.split(",")) {
+            if (!glob.isBlank()) {
+                globs.add(glob.trim());
+            }
+        }
+        return globs;
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static Map<Pattern, Path> compile(Map<String, Path> routes) {
+        Map<Pattern, Path> compiled = new LinkedHashMap<>();
+        routes.forEach((url, file) -> compiled.put(glob(url), file));
+        return compiled;
+    }
+
+    private static Map<String, Path> loadRoutes() {
+        Path routesFile = FIXTURES_DIR.resolve("routes.properties");
+        Map<String, Path> routes = new LinkedHashMap<>();
+        if (!Files.isRegularFile(routesFile)) {
+            return routes;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(routesFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + routesFile, e);
+        }
+        for (String url : new TreeSet<>(properties.stringPropertyNames())) {
+            Path file = FIXTURES_DIR.resolve(properties.getProperty(url).trim());
+            if (!Files.isRegularFile(file)) {
+                throw new IllegalStateException("Network fixture " + file + " for " + url + " does not exist");
+            }
+            routes.put(url, file);
+        }
+        return routes;
+    }
+
+    private static Map<String, long[]> loadSizes() {
+        Map<String, long[]> loaded = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(SIZES_FILE)) {
+            return loaded;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(SIZES_FILE)) {
+            properties.load(in);
+            for (String url : properties.stringPropertyNames()) {
+                String[] value = properties.getProperty(url).split(",");
+                // catalogues written before keys dropped the query collapse onto one entry
+                loaded.putIfAbsent(sizeKey(url), new long[] {Long.parseLong(value[0].trim()), Long.parseLong(value[1].trim())});
+            }
+        } catch (IOException | RuntimeException e) {
+            RunLog.warn("NetworkShaper", "Ignoring unreadable " + SIZES_FILE + ": " + e.getMessage());
+            loaded.clear();
+        }
+        return loaded;
+    }
+
+    private static void saveSizes() {
+        if (sizes.isEmpty()) {
+            return;
+        }
+        Properties properties = new Properties();
+        sizes.forEach((url, size) -> properties.setProperty(url, size[0] + "," + size[1]));
+        try {
+            if (SIZES_FILE.getParent() != null) {
+                Files.createDirectories(SIZES_FILE.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(SIZES_FILE)) {
+                properties.store(out, "Blocked resource bytes,fetch ms, maintained by utils.NetworkShaper");
+            }
+        } catch (IOException e) {
+            RunLog.warn("NetworkShaper", "Could not write " + SIZES_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package utils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * ParallelismController adjusts how many scenarios run at once while the suite runs, instead of
+ * relying on a fixed dataproviderthreadcount.
+ * <p>
+ * Scenarios pass a gate in the @Before hook (before a browser is leased) and leave it in the
+ * @After hook. The gate's limit starts at {@code parallel.initial} and is revised every
+ * {@code parallel.interval.ms} from what the host looks like:
+ * - system CPU load
+ * - available memory, and the resident memory of the browsers and drivers this JVM started
+ *   (read from /proc on Linux), which tells what one more browser would cost
+ * - the mean latency of the short WebDriver commands (element lookups and reads) run since the
+ *   last sample, compared with the median of the previous samples' means (timed by the
+ *   controller's own {@link #listener()} on every tracked session).
+ *   Navigation, clicks and scripts are left out: their time is page load and in-page waiting,
+ *   not how busy the browser is.
+ * <p>
+ * The limit shrinks by a quarter (at least one) as soon as CPU, memory or latency is over its
+ * threshold, and idle pooled browsers beyond the new limit are quit. It grows by one when
+ * scenarios are waiting at the gate and every signal has headroom, but not within two samples of a
+ * shrink, so it settles instead of oscillating. Every change, and every hold with a new reason,
+ * is logged with the readings behind it (with log.verbose=true, see {@link RunLog}).
+ * <p>
+ * The upper bound is the number of threads that can run scenarios: the data-provider thread count,
+ * or driver.pool.size in virtual-thread mode. Runs without {@link #start(int)} (load mode) are not
+ * gated.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - parallel.adaptive: true | false (default: false)
+ * - parallel.min: lowest limit (default: 1)
+ * - parallel.max: highest limit, capped by the thread count (default: the thread count)
+ * - parallel.initial: limit at suite start (default: half the CPU cores, within min..max)
+ * - parallel.interval.ms: time between samples (default: 5000)
+ * - parallel.cpu.high / parallel.cpu.low: CPU load to shrink at / to grow below (default: 0.85 / 0.65)
+ * - parallel.memory.floor.mb: available memory to keep free (default: 1024)
+ * - parallel.latency.factor: shrink when command latency exceeds this multiple of the median
+ *   of the last samples (default: 2.5)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ParallelismController {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("parallel.adaptive", "false"));
+
+    private static final int MIN = Math.max(1, Integer.getInteger("parallel.min", 1));
+
+    private static final long INTERVAL_MILLIS = Long.getLong("parallel.interval.ms", 5000);
+
+    private static final double CPU_HIGH = Double.parseDouble(System.getProperty("parallel.cpu.high", "0.85"));
+
+    private static final double CPU_LOW = Double.parseDouble(System.getProperty("parallel.cpu.low", "0.65"));
+
+    private static final long MEMORY_FLOOR_MB = Long.getLong("parallel.memory.floor.mb", 1024);
+
+    private static final double LATENCY_FACTOR =
+            Double.parseDouble(System.getProperty("parallel.latency.factor", "2.5"));
+
+    // fewer commands than this in a sample say nothing about latency
+    private static final long MIN_COMMANDS = 20;
+
+    // commands whose duration is mostly the browser's response time, not page work
+    private static final Set<String> TIMED_COMMANDS = Set.of(
+            "findElement", "findElements", "getText", "getAttribute", "getDomAttribute", "getDomProperty",
+            "getCssValue", "getTagName", "isDisplayed", "isEnabled", "isSelected", "getRect", "getLocation",
+            "getSize", "getTitle", "getCurrentUrl");
+
+    // sample means the baseline median is taken over (one minute at the default interval)
+    private static final int BASELINE_SAMPLES = 12;
+    private static final int MIN_BASELINE_SAMPLES = 3;
+
+    private static final int COOLDOWN_SAMPLES = 2;
+
+    private static final Path PROC = Paths.get("/proc");
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final Condition slotFreed = lock.newCondition();
+
+    // guarded by lock
+    private static int limit;
+    private static int max;
+    private static int running;
+    private static int waiting;
+    private static int peakRunning;
+
+    private static volatile boolean started;
+
+    private static final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    private static final CommandTimer COMMAND_TIMER = new CommandTimer();
+
+    private static final LongAdder commands = new LongAdder();
+    private static final LongAdder commandNanos = new LongAdder();
+
+    private static final AtomicLong grown = new AtomicLong();
+    private static final AtomicLong shrunk = new AtomicLong();
+    private static final AtomicLong trimmed = new AtomicLong();
+    private static final AtomicLong gateWaitNanos = new AtomicLong();
+
+    // sampler thread only
+    private static ScheduledExecutorService sampler;
+    private static final double[] latencyHistory = new double[BASELINE_SAMPLES];
+    private static int latencySamples;
+    private static int cooldown;
+    private static String lastHold;
+    private static long samples;
+    private static long runningSum;
+
+    private ParallelismController() {}
+
+    /**
+     * True when the number of concurrent scenarios should follow the host's load.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Opens the gate at the initial limit and starts sampling. Call once, before the scenarios run.
+     *
+     * @param threads number of threads that can run scenarios (the upper bound)
+     * @return the initial limit
+     */
+    public static int start(int threads) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        lock.lock();
+        try {
+            max = Math.max(MIN, Math.min(threads, Integer.getInteger("parallel.max", threads)));
+            limit = Math.max(MIN, Math.min(max, Integer.getInteger("parallel.initial", Math.max(1, cores / 2))));
+            started = true;
+        } finally {
+            lock.unlock();
+        }
+        if (sampler != null) {
+            // a later suite in the same run
+            sampler.shutdownNow();
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "parallelism-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(ParallelismController::sample, INTERVAL_MILLIS, INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        RunLog.event("ParallelismController", "Starting at " + limit + " concurrent scenarios (range "
+                + MIN + ".." + max + ", " + cores + " cores)");
+        return limit;
+    }
+
+    /**
+     * Stops sampling and opens the gate for any scenario still waiting.
+     */
+    public static void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+        lock.lock();
+        try {
+            started = false;
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the current thread's scenario may run. Does nothing unless the controller has
+     * been started.
+     */
+    public static void acquire() {
+        if (!started || holding.get() != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            waiting++;
+            while (started && running >= limit) {
+                slotFreed.awaitUninterruptibly();
+            }
+            waiting--;
+            running++;
+            peakRunning = Math.max(peakRunning, running);
+            holding.set(Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+        gateWaitNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Frees the current thread's place, if it holds one. Call once the scenario's browser has
+     * been released.
+     */
+    public static void release() {
+        if (holding.get() == null) {
+            return;
+        }
+        holding.remove();
+        lock.lock();
+        try {
+            running--;
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Listener to attach to tracked sessions; times the short commands the latency signal is
+     * made of.
+     */
+    static TrackedDriver.Listener listener() {
+        return COMMAND_TIMER;
+    }
+
+    /**
+     * Returns a one-line summary: final limit, number of changes, peak and mean concurrency and
+     * the time scenarios spent waiting at the gate.
+     */
+    public static String stats() {
+        lock.lock();
+        try {
+            return String.format("limit=%d (range %d..%d) grown=%d shrunk=%d peak running=%d mean running=%.1f"
+                            + " gate wait=%.1fs trimmed browsers=%d",
+                    limit, MIN, max, grown.get(), shrunk.get(), peakRunning,
+                    samples == 0 ? 0.0 : (double) runningSum / samples,
+                    gateWaitNanos.get() / 1_000_000_000.0, trimmed.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Median of the last sample means, or NaN until there are enough of them.
+     */
+    private static double baselineLatency() {
+        int size = Math.min(latencySamples, BASELINE_SAMPLES);
+        if (size < MIN_BASELINE_SAMPLES) {
+            return Double.NaN;
+        }
+        double[] sorted = Arrays.copyOf(latencyHistory, size);
+        Arrays.sort(sorted);
+        return size % 2 == 1 ? sorted[size / 2] : (sorted[size / 2 - 1] + sorted[size / 2]) / 2;
+    }
+
+    private static void sample() {
+        try {
+            decide();
+        } catch (RuntimeException e) {
+            // a broken sample must not stop the sampler
+            RunLog.warn("ParallelismController", "Sample failed: " + e.getMessage());
+        }
+    }
+
+    private static void decide() {
+        double cpu = cpuLoad();
+        long availableMb = availableMemoryMb();
+        long[] browsers = browserMemory();
+        long rssPerBrowserMb = browsers[1] == 0 ? 0 : browsers[0] / browsers[1];
+        long count = commands.sumThenReset();
+        long nanos = commandNanos.sumThenReset();
+        double latencyMillis = count < MIN_COMMANDS ? Double.NaN : nanos / 1_000_000.0 / count;
+        double baselineLatencyMillis = baselineLatency();
+        if (!Double.isNaN(latencyMillis)) {
+            latencyHistory[latencySamples++ % BASELINE_SAMPLES] = latencyMillis;
+        }
+
+        int current;
+        int inUse;
+        int queued;
+        lock.lock();
+        try {
+            current = limit;
+            inUse = running;
+            queued = waiting;
+        } finally {
+            lock.unlock();
+        }
+        samples++;
+        runningSum += inUse;
+        if (cooldown > 0) {
+            cooldown--;
+        }
+
+        String pressure = null;
+        if (cpu >= CPU_HIGH) {
+            pressure = String.format("cpu >= %.0f%%", CPU_HIGH * 100);
+        } else if (availableMb >= 0 && availableMb < MEMORY_FLOOR_MB) {
+            pressure = "available memory < " + MEMORY_FLOOR_MB + "MB";
+        } else if (latencyMillis > baselineLatencyMillis * LATENCY_FACTOR) {
+            pressure = "command latency > " + LATENCY_FACTOR + " x median";
+        }
+
+        String readings = String.format("cpu=%s available=%s rss/browser=%s latency=%s (median %s) running=%d waiting=%d",
+                cpu < 0 ? "n/a" : String.format("%.0f%%", cpu * 100),
+                availableMb < 0 ? "n/a" : availableMb + "MB",
+                browsers[1] == 0 ? "n/a" : rssPerBrowserMb + "MB",
+                Double.isNaN(latencyMillis) ? "n/a" : String.format("%.0fms", latencyMillis),
+                Double.isNaN(baselineLatencyMillis) ? "n/a" : String.format("%.0fms", baselineLatencyMillis),
+                inUse, queued);
+
+        if (pressure != null) {
+            if (current > MIN) {
+                int target = Math.max(MIN, current - Math.max(1, current / 4));
+                setLimit(target);
+                shrunk.incrementAndGet();
+                cooldown = COOLDOWN_SAMPLES;
+                lastHold = null;
+                int quit = DriverPool.isEnabled() ? DriverPool.trimIdle(target - inUse) : 0;
+                trimmed.addAndGet(quit);
+                RunLog.event("ParallelismController", "shrink " + current + " -> " + target + ": " + pressure
+                        + "; " + readings + (quit > 0 ? "; quit " + quit + " idle browser(s)" : ""));
+            } else {
+                hold("at minimum, " + pressure, readings);
+            }
+            return;
+        }
+        if (queued == 0 || current >= max) {
+            return;
+        }
+        String blocked = null;
+        if (cooldown > 0) {
+            blocked = "cooling down after a shrink";
+        } else if (cpu >= CPU_LOW) {
+            blocked = String.format("cpu >= %.0f%%", CPU_LOW * 100);
+        } else if (availableMb >= 0 && availableMb - rssPerBrowserMb < MEMORY_FLOOR_MB) {
+            blocked = "one more browser would leave less than " + MEMORY_FLOOR_MB + "MB";
+        }
+        if (blocked != null) {
+            hold(blocked, readings);
+            return;
+        }
+        setLimit(current + 1);
+        grown.incrementAndGet();
+        lastHold = null;
+        RunLog.event("ParallelismController", "grow " + current + " -> " + (current + 1) + ": " + readings);
+    }
+
+    private static void hold(String reason, String readings) {
+        if (!reason.equals(lastHold)) {
+            lastHold = reason;
+            RunLog.event("ParallelismController", "hold: " + reason + "; " + readings);
+        }
+    }
+
+    private static void setLimit(int target) {
+        lock.lock();
+        try {
+            limit = target;
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * System CPU load between 0 and 1, or -1 when unknown.
+     */
+    private static double cpuLoad() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getCpuLoad();
+        }
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        return load < 0 ? -1 : load / Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Memory available to new processes in MB (MemAvailable on Linux, which counts reclaimable
+     * caches), or -1 when unknown.
+     */
+    private static long availableMemoryMb() {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve("meminfo"))) {
+                if (line.startsWith("MemAvailable:")) {
+                    return kilobytes(line) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // not Linux
+        }
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                    .getFreeMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    /**
+     * Resident memory in MB of the processes this JVM started (drivers, browsers and their
+     * renderers), and the number of driver processes among them.
+     */
+    private static long[] browserMemory() {
+        long kilobytes = 0;
+        long drivers = 0;
+        List<ProcessHandle> descendants = ProcessHandle.current().descendants().collect(Collectors.toList());
+        for (ProcessHandle process : descendants) {
+            String command = process.info().command().orElse("");
+            if (command.endsWith("chromedriver") || command.endsWith("geckodriver")
+                    || command.endsWith("chromedriver.exe") || command.endsWith("geckodriver.exe")) {
+                drivers++;
+            }
+            kilobytes += ProcessTracker.rssKilobytes(process);
+        }
+        return new long[] {kilobytes / 1024, kilobytes == 0 ? 0 : drivers};
+    }
+
+    private static long kilobytes(String procLine) {
+        // "MemAvailable:   12345678 kB"
+        String[] parts = procLine.trim().split("\\s+");
+        return Long.parseLong(parts[1]);
+    }
+
+    /**
+     * Times the {@link #TIMED_COMMANDS} of each thread into the current sample. Those commands
+     * never contain other commands, so one start time per thread is enough.
+     */
+    private static final class CommandTimer implements TrackedDriver.Listener {
+
+        private final ThreadLocal<long[]> startNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+        @Override
+        public void beforeCommand(Object target, String command, Object[] args) {
+            if (started && TIMED_COMMANDS.contains(command)) {
+                startNanos.get()[0] = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void afterCommand(Object target, String command, Object[] args, Object result) {
+            stop(command);
+        }
+
+        @Override
+        public void onCommandError(Object target, String command, Object[] args, RuntimeException e) {
+            // failed lookups (NoSuchElement) still took the browser's time
+            stop(command);
+        }
+
+        private void stop(String command) {
+            long[] start = startNanos.get();
+            if (start[0] != 0 && TIMED_COMMANDS.contains(command)) {
+                commands.increment();
+                commandNanos.add(System.nanoTime() - start[0]);
+                start[0] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package utils;
+
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.service.ExtentService;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * PerformanceProbe reads browser performance data for the current page and checks it against
+ * performance budgets.
+ * <p>
+ * One asynchronous script call waits until the page is loaded (and, optionally, until the URL
+ * ends with an expected path), then collects Navigation Timing (TTFB, DOMContentLoaded, load),
+ * Resource Timing (count, transferred bytes) and the buffered Largest Contentful Paint and
+ * Cumulative Layout Shift entries. Metrics the browser does not support (e.g. layout shifts in
+ * Firefox) are reported as not available and never fail a budget.
+ * <p>
+ * Samples are kept per scenario (cleared by the hooks) for budget checks, and for the whole run;
+ * {@link #export()} appends them to a history file and adds a table comparing this run's medians
+ * with the previous run to the Extent report's Logs view (written when {@link RunLog} flushes the
+ * report with the run summary).
+ * <p>
+ * Configuration is controlled via system properties:
+ * - perf.probe: true | false (default: false; samples the login page and the inventory page
+ *   after login automatically. The budget steps always sample.)
+ * - perf.budget.enforce: true | false (default: false; fail any scenario with a sample over budget)
+ * - perf.budget.ttfb.ms (default 800), perf.budget.dcl.ms (default 2000),
+ *   perf.budget.load.ms (default 4000), perf.budget.lcp.ms (default 2500),
+ *   perf.budget.cls (default 0.1); 0 or less disables a budget
+ * - perf.history.file (default: .cache/perf-history.csv)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class PerformanceProbe {
+
+    private static final boolean AUTO_PROBE = Boolean.parseBoolean(System.getProperty("perf.probe", "false"));
+
+    private static final boolean ENFORCE = Boolean.parseBoolean(System.getProperty("perf.budget.enforce", "false"));
+
+    private static final Path HISTORY_FILE =
+            Paths.get(System.getProperty("perf.history.file", ".cache/perf-history.csv"));
+
+    private static final long WAIT_MILLIS = Long.getLong("wait.timeout.seconds", 10L) * 1_000;
+
+    private static final String HISTORY_HEADER = "run,label,url,ttfb,domContentLoaded,load,lcp,cls,resources,transferBytes";
+
+    /** Metrics with a budget, in report order. */
+    private static final Map<String, ToDoubleFunction<Sample>> METRICS = new LinkedHashMap<>();
+
+    private static final Map<String, Double> BUDGETS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("ttfb", Sample::getTtfbMillis);
+        METRICS.put("dcl", Sample::getDomContentLoadedMillis);
+        METRICS.put("load", Sample::getLoadMillis);
+        METRICS.put("lcp", Sample::getLcpMillis);
+        METRICS.put("cls", Sample::getCls);
+        BUDGETS.put("ttfb", budget("perf.budget.ttfb.ms", 800));
+        BUDGETS.put("dcl", budget("perf.budget.dcl.ms", 2000));
+        BUDGETS.put("load", budget("perf.budget.load.ms", 4000));
+        BUDGETS.put("lcp", budget("perf.budget.lcp.ms", 2500));
+        BUDGETS.put("cls", budget("perf.budget.cls", 0.1));
+    }
+
+    private static final String PROBE_SCRIPT = String.join("\n",
+            "var path = arguments[0], abortSelector = arguments[1], timeoutMs = arguments[2];",
+            "var done = arguments[arguments.length - 1];",
+            "var deadline = Date.now() + timeoutMs;",
+            "function ready() {",
+            "  return document.readyState === 'complete'",
+            "      && (!path || location.pathname.slice(-path.length) === path);",
+            "}",
+            "function collect() {",
+            "  var nav = performance.getEntriesByType('navigation')[0] || {};",
+            "  var resources = performance.getEntriesByType('resource');",
+            "  var bytes = nav.transferSize || 0;",
+            "  for (var i = 0; i < resources.length; i++) { bytes += resources[i].transferSize || 0; }",
+            "  var types = window.PerformanceObserver && PerformanceObserver.supportedEntryTypes || [];",
+            "  var lcp = null, cls = null, observers = [];",
+            "  // lcp stays null until an entry arrives: no paint yet is not a 0 ms paint",
+            "  if (types.indexOf('largest-contentful-paint') >= 0) {",
+            "    var lcpObserver = new PerformanceObserver(function (list) {",
+            "      var entries = list.getEntries();",
+            "      if (entries.length) { lcp = entries[entries.length - 1].startTime; }",
+            "    });",
+            "    lcpObserver.observe({ type: 'largest-contentful-paint', buffered: true });",
+            "    observers.push(lcpObserver);",
+            "  }",
+            "  if (types.indexOf('layout-shift') >= 0) {",
+            "    cls = 0;",
+            "    var clsObserver = new PerformanceObserver(function (list) {",
+            "      list.getEntries().forEach(function (e) { if (!e.hadRecentInput) { cls += e.value; } });",
+            "    });",
+            "    clsObserver.observe({ type: 'layout-shift', buffered: true });",
+            "    observers.push(clsObserver);",
+            "  }",
+            "  // buffered entries are delivered to the observers in a later task",
+            "  setTimeout(function () {",
+            "    observers.forEach(function (o) { o.disconnect(); });",
+            "    done({",
+            "      url: location.href,",
+            "      ttfb: nav.responseStart || 0,",
+            "      domContentLoaded: nav.domContentLoadedEventEnd || 0,",
+            "      load: nav.loadEventEnd || 0,",
+            "      lcp: lcp,",
+            "      cls: cls,",
+            "      resources: resources.length,",
+            "      transferBytes: bytes",
+            "    });",
+            "  }, 0);",
+            "}",
+            "(function poll() {",
+            "  if (ready()) { collect(); }",
+            "  else if (Date.now() > deadline) { done(null); }",
+            "  else if (abortSelector && document.querySelector(abortSelector)) { done(null); }",
+            "  else { setTimeout(poll, 25); }",
+            "})();");
+
+    private static final ThreadLocal<List<Sample>> scenarioSamples = ThreadLocal.withInitial(ArrayList::new);
+
+    private static final Queue<Sample> runSamples = new ConcurrentLinkedQueue<>();
+
+    static {
+        NavigationTracker.registerReadOnlyScript(PROBE_SCRIPT);
+    }
+
+    private PerformanceProbe() {}
+
+    /**
+     * Returns true if pages are sampled automatically after navigation.
+     */
+    public static boolean isAutoProbe() {
+        return AUTO_PROBE;
+    }
+
+    /**
+     * Returns true if scenarios should fail when a sample exceeds a budget.
+     */
+    public static boolean isEnforced() {
+        return ENFORCE;
+    }
+
+    /**
+     * Samples the current page once it has finished loading.
+     *
+     * @param label name of the page in reports and history (e.g. "login page"), or null to use
+     *              the URL path
+     * @return the sample, or null if the page did not load in time or the driver cannot run scripts
+     */
+    public static Sample capture(WebDriver driver, String label) {
+        return captureAt(driver, null, null, label);
+    }
+
+    /**
+     * Samples the page once the URL path ends with the given path and the page has loaded,
+     * e.g. to sample the page a login lands on.
+     *
+     * @param path          expected end of the URL path, or null for the current page
+     * @param abortSelector CSS selector that means the page will not be reached (e.g. an error
+     *                      banner), or null to wait for the full timeout
+     * @return the sample, or null if that page was not reached in time
+     */
+    public static Sample captureAt(WebDriver driver, String path, String abortSelector, String label) {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object raw;
+        try {
+            raw = ((JavascriptExecutor) driver).executeAsyncScript(PROBE_SCRIPT, path, abortSelector, WAIT_MILLIS);
+        } catch (WebDriverException e) {
+            return null;
+        }
+        if (!(raw instanceof Map)) {
+            return null;
+        }
+        Map<?, ?> data = (Map<?, ?>) raw;
+        String url = String.valueOf(data.get("url"));
+        if (label == null) {
+            label = URI.create(url).getPath();
+        }
+        Sample sample = new Sample(label, url, number(data.get("ttfb")),
+                number(data.get("domContentLoaded")), number(data.get("load")), number(data.get("lcp")),
+                number(data.get("cls")), (long) number(data.get("resources")), (long) number(data.get("transferBytes")));
+        scenarioSamples.get().add(sample);
+        runSamples.add(sample);
+        return sample;
+    }
+
+    /**
+     * Samples taken in the current scenario, in capture order.
+     */
+    public static List<Sample> scenarioSamples() {
+        return Collections.unmodifiableList(new ArrayList<>(scenarioSamples.get()));
+    }
+
+    /**
+     * Returns the budget violations of a sample, e.g. "lcp 3120 ms > 2500 ms"; empty if within budget.
+     */
+    public static List<String> violations(Sample sample) {
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, ToDoubleFunction<Sample>> metric : METRICS.entrySet()) {
+            double budget = BUDGETS.get(metric.getKey());
+            double value = metric.getValue().applyAsDouble(sample);
+            if (budget > 0 && !Double.isNaN(value) && value > budget) {
+                violations.add(metric.getKey() + " " + format(metric.getKey(), value)
+                        + " > " + format(metric.getKey(), budget));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Returns the budget violations of every sample of the current scenario, prefixed by page label.
+     */
+    public static List<String> scenarioViolations() {
+        List<String> violations = new ArrayList<>();
+        for (Sample sample : scenarioSamples.get()) {
+            for (String violation : violations(sample)) {
+                violations.add(sample.getLabel() + ": " + violation);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Formats the current scenario's samples as text lines for the scenario log.
+     */
+    public static String describeScenario() {
+        StringBuilder text = new StringBuilder();
+        for (Sample sample : scenarioSamples.get()) {
+            text.append(sample).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Drops the current scenario's samples; call when the scenario ends.
+     */
+    public static void clear() {
+        scenarioSamples.remove();
+    }
+
+    /**
+     * Appends this run's samples to the history file and adds a table with this run's medians
+     * per page, next to the previous run's, to the Extent report. Call once at suite end, before
+     * {@link RunLog#writeSummary(boolean)} flushes the report.
+     */
+    public static void export() {
+        List<Sample> samples = new ArrayList<>(runSamples);
+        if (samples.isEmpty()) {
+            return;
+        }
+        List<String[]> history = readHistory();
+        String run = Instant.now().toString();
+        writeHistory(run, samples);
+
+        // previous run = latest run id in the history before this one
+        String previousRun = null;
+        for (String[] row : history) {
+            if (previousRun == null || row[0].compareTo(previousRun) > 0) {
+                previousRun = row[0];
+            }
+        }
+        Map<String, List<Sample>> byLabel = new TreeMap<>();
+        for (Sample sample : samples) {
+            byLabel.computeIfAbsent(sample.getLabel(), l -> new ArrayList<>()).add(sample);
+        }
+        Map<String, List<Sample>> previousByLabel = new TreeMap<>();
+        for (String[] row : history) {
+            if (row[0].equals(previousRun)) {
+                previousByLabel.computeIfAbsent(row[1], l -> new ArrayList<>()).add(fromHistory(row));
+            }
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        List<String> header = new ArrayList<>(List.of("Page", "Samples"));
+        for (String metric : METRICS.keySet()) {
+            header.add(metric + (metric.equals("cls") ? "" : " ms") + " (prev)");
+        }
+        rows.add(header.toArray(new String[0]));
+        for (Map.Entry<String, List<Sample>> entry : byLabel.entrySet()) {
+            List<String> row = new ArrayList<>(List.of(entry.getKey(), String.valueOf(entry.getValue().size())));
+            List<Sample> previous = previousByLabel.getOrDefault(entry.getKey(), List.of());
+            for (Map.Entry<String, ToDoubleFunction<Sample>> metric : METRICS.entrySet()) {
+                double now = median(entry.getValue(), metric.getValue());
+                double before = median(previous, metric.getValue());
+                row.add(format(metric.getKey(), now) + " (" + format(metric.getKey(), before) + ")");
+            }
+            rows.add(row.toArray(new String[0]));
+        }
+
+        try {
+            ExtentService.getInstance().addTestRunnerOutput(List.of(
+                    "<h6>Page performance</h6>",
+                    "Median per page for this run (previous run in brackets); budgets " + BUDGETS,
+                    MarkupHelper.createTable(rows.toArray(new String[0][])).getMarkup()));
+        } catch (Exception e) {
+            RunLog.warn("PerformanceProbe", "Could not add Extent summary: " + e.getMessage());
+        }
+    }
+
+    private static List<String[]> readHistory() {
+        List<String[]> rows = new ArrayList<>();
+        if (!Files.isReadable(HISTORY_FILE)) {
+            return rows;
+        }
+        try {
+            for (String line : Files.readAllLines(HISTORY_FILE, StandardCharsets.UTF_8)) {
+                String[] row = line.split(",", -1);
+                if (row.length == 10 && !line.equals(HISTORY_HEADER)) {
+                    rows.add(row);
+                }
+            }
+        } catch (IOException e) {
+            RunLog.warn("PerformanceProbe", "Could not read " + HISTORY_FILE + ": " + e.getMessage());
+        }
+        return rows;
+    }
+
+    private static void writeHistory(String run, List<Sample> samples) {
+        StringBuilder lines = new StringBuilder();
+        if (!Files.exists(HISTORY_FILE)) {
+            lines.append(HISTORY_HEADER).append('\n');
+        }
+        for (Sample s : samples) {
+            lines.append(String.join(",", run, csv(s.getLabel()), csv(s.getUrl()), String.valueOf(s.getTtfbMillis()),
+                    String.valueOf(s.getDomContentLoadedMillis()), String.valueOf(s.getLoadMillis()),
+                    String.valueOf(s.getLcpMillis()), String.valueOf(s.getCls()),
+                    String.valueOf(s.getResourceCount()), String.valueOf(s.getTransferBytes()))).append('\n');
+        }
+        try {
+            if (HISTORY_FILE.getParent() != null) {
+                Files.createDirectories(HISTORY_FILE.getParent());
+            }
+            Files.writeString(HISTORY_FILE, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            RunLog.warn("PerformanceProbe", "Could not write " + HISTORY_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static Sample fromHistory(String[] row) {
+        return new Sample(row[1], row[2], Double.parseDouble(row[3]), Double.parseDouble(row[4]),
+                Double.parseDouble(row[5]), Double.parseDouble(row[6]), Double.parseDouble(row[7]),
+                Long.parseLong(row[8]), Long.parseLong(row[9]));
+    }
+
+    private static double median(List<Sample> samples, ToDoubleFunction<Sample> metric) {
+        double[] values = samples.stream().mapToDouble(metric).filter(v -> !Double.isNaN(v)).sorted().toArray();
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    private static String format(String metric, double value) {
+        if (Double.isNaN(value)) {
+            return "n/a";
+        }
+        return "cls".equals(metric) ? String.format(Locale.ROOT, "%.3f", value) : String.valueOf(Math.round(value));
+    }
+
+    private static String csv(String text) {
+        return text.replace(',', ' ').replace('\n', ' ');
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private static double budget(String property, double defaultValue) {
+        return Double.parseDouble(System.getProperty(property, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Performance data of one page load. Times are milliseconds since navigation start; metrics the
+     * browser does not support, or has no entry for yet (such as LCP before the first paint), are NaN.
+     */
+    public static final class Sample {
+
+        private final String label;
+        private final String url;
+        private final double ttfbMillis;
+        private final double domContentLoadedMillis;
+        private final double loadMillis;
+        private final double lcpMillis;
+        private final double cls;
+        private final long resourceCount;
+        private final long transferBytes;
+
+        Sample(String label, String url, double ttfbMillis, double domContentLoadedMillis, double loadMillis,
+               double lcpMillis, double cls, long resourceCount, long transferBytes) {
+            this.label = label;
+            this.url = url;
+            this.ttfbMillis = ttfbMillis;
+            this.domContentLoadedMillis = domContentLoadedMillis;
+            this.loadMillis = loadMillis;
+            this.lcpMillis = lcpMillis;
+            this.cls = cls;
+            this.resourceCount = resourceCount;
+            this.transferBytes = transferBytes;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public double getTtfbMillis() {
+            return ttfbMillis;
+        }
+
+        public double getDomContentLoadedMillis() {
+            return domContentLoadedMillis;
+        }
+
+        public double getLoadMillis() {
+            return loadMillis;
+        }
+
+        public double getLcpMillis() {
+            return lcpMillis;
+        }
+
+        public double getCls() {
+            return cls;
+        }
+
+        public long getResourceCount() {
+            return resourceCount;
+        }
+
+        public long getTransferBytes() {
+            return transferBytes;
+        }
+
+        @Override
+        public String toString() {
+            return label + " (" + url + "): ttfb=" + format("ttfb", ttfbMillis) + " ms, dcl="
+                    + format("dcl", domContentLoadedMillis) + " ms, load=" + format("load", loadMillis)
+                    + " ms, lcp=" + format("lcp", lcpMillis) + " ms, cls=" + format("cls", cls)
+                    + ", resources=" + resourceCount + ", transferBytes=" + transferBytes;
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package utils;
+
+import io.cucumber.core.gherkin.Step;
+import io.cucumber.core.gherkin.StepType;
+import io.cucumber.java.Scenario;
+import io.cucumber.plugin.event.Location;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * PrefixSnapshots runs a step prefix that several scenarios share (typically "open the login page,
+ * log in") once, captures the browser state it leaves behind and restores that state for the
+ * other scenarios instead of replaying the steps.
+ * <p>
+ * The runners hand their scheduled data-provider rows to {@link #prepare(Object[][])}, which counts
+ * the step prefixes those rows share. Prefixes stop before the first outcome (Then) step and are
+ * at least {@code snapshot.min.steps} long. When a row is about to run, its longest shared prefix
+ * becomes the plan for the scenario's thread:
+ * - no snapshot yet: the steps run as usual and the state is captured after the last prefix step
+ *   (cookies, localStorage and URL), provided every step passed and no cart seeding is pending
+ * - snapshot available: the row runs a copy of its pickle without the prefix steps, so Cucumber
+ *   neither runs nor reports them, and the @Before hook restores the snapshot once the driver is
+ *   bound, logging which steps it stands in for
+ * <p>
+ * Steps of a restored prefix do not run, so neither do any checks inside them; the snapshot was
+ * taken by a scenario that passed those checks. Snapshots are shared by all workers, like
+ * {@link FastAuth} sessions, so they also work when every scenario has its own virtual thread.
+ * Only state the browser keeps is restored, which is all SauceDemo has; a page whose prefix
+ * leaves DOM-only state (an error banner) cannot be captured faithfully, which is what the
+ * verification mode is for: a sampled share of the scenarios that could restore replay the prefix
+ * in full instead and compare the state they reach with the snapshot. Mismatches are logged on
+ * the scenario and summarized at the end.
+ * <p>
+ * Cucumber's TestNG pickle has no public way to read or copy its steps; both go through its
+ * package-private members (checked against cucumber-testng 7.33). If those are missing, snapshots
+ * are switched off with a warning and every scenario replays its prefix.
+ * <p>
+ * Scenarios tagged {@value #NO_SNAPSHOT_TAG} never use or produce snapshots.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - snapshot.prefixes: true | false (default: false)
+ * - snapshot.min.steps: shortest prefix worth a snapshot (default: 2)
+ * - snapshot.verify.rate: share of restorable scenarios replayed in full and compared, 0 to 1
+ *   (default: 0)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class PrefixSnapshots {
+
+    public static final String NO_SNAPSHOT_TAG = "@nosnapshot";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("snapshot.prefixes", "false"));
+
+    private static final int MIN_STEPS = Integer.getInteger("snapshot.min.steps", 2);
+
+    private static final double VERIFY_RATE = Double.parseDouble(System.getProperty("snapshot.verify.rate", "0"));
+
+    private static final String READ_STORAGE_SCRIPT = String.join("\n",
+            "var entries = {};",
+            "for (var i = 0; i < window.localStorage.length; i++) {",
+            "  var key = window.localStorage.key(i);",
+            "  entries[key] = window.localStorage.getItem(key);",
+            "}",
+            "return entries;");
+
+    private static final String WRITE_STORAGE_SCRIPT = String.join("\n",
+            "window.localStorage.clear();",
+            "var entries = arguments[0];",
+            "for (var key in entries) { window.localStorage.setItem(key, entries[key]); }");
+
+    static {
+        NavigationTracker.registerReadOnlyScript(READ_STORAGE_SCRIPT);
+    }
+
+    // Access to the Gherkin pickle behind Cucumber's TestNG pickle; null when unavailable
+    private static final Method CORE_PICKLE = corePickleAccessor();
+    private static final Constructor<Pickle> PICKLE_CONSTRUCTOR = pickleConstructor();
+
+    // prefix key -> number of scheduled pickles that start with it
+    private static final Map<String, Integer> prefixCounts = new ConcurrentHashMap<>();
+
+    private static final Set<String> countedPickles = ConcurrentHashMap.newKeySet();
+
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Plan> plan = new ThreadLocal<>();
+
+    private static final AtomicLong captured = new AtomicLong();
+    private static final AtomicLong restored = new AtomicLong();
+    private static final AtomicLong stepsRestored = new AtomicLong();
+    private static final AtomicLong verified = new AtomicLong();
+    private static final Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+
+    private PrefixSnapshots() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Counts the step prefixes the scheduled rows share and wraps every row whose pickle starts
+     * with a shared prefix, so the prefix is planned (and, once a snapshot exists, left out) when
+     * the row runs. Returns the rows unchanged when snapshots are disabled.
+     *
+     * @param scenarios data-provider rows (PickleWrapper, FeatureWrapper) after scheduling
+     */
+    public static Object[][] prepare(Object[][] scenarios) {
+        if (!ENABLED) {
+            return scenarios;
+        }
+        if (CORE_PICKLE == null || PICKLE_CONSTRUCTOR == null) {
+            RunLog.warn("PrefixSnapshots", "Cucumber's TestNG pickle has changed, scenarios replay their prefixes");
+            return scenarios;
+        }
+        List<List<Step>> prefixes = new ArrayList<>();
+        for (Object[] row : scenarios) {
+            Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+            List<Step> prefix = candidatePrefix(pickle);
+            prefixes.add(prefix);
+            String identity = pickle.getUri() + ":" + pickle.getLine();
+            // count each pickle once, even when several runners of the suite schedule it
+            if (prefix.isEmpty() || !countedPickles.add(identity)) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder();
+            for (int length = 1; length <= prefix.size(); length++) {
+                key.append(prefix.get(length - 1).getText()).append('\n');
+                if (length >= MIN_STEPS) {
+                    prefixCounts.merge(key.toString(), 1, Integer::sum);
+                }
+            }
+        }
+        Object[][] prepared = new Object[scenarios.length][];
+        for (int i = 0; i < scenarios.length; i++) {
+            prepared[i] = scenarios[i].clone();
+            String longest = null;
+            int longestLength = 0;
+            StringBuilder key = new StringBuilder();
+            List<Step> prefix = prefixes.get(i);
+            for (int length = 1; length <= prefix.size(); length++) {
+                key.append(prefix.get(length - 1).getText()).append('\n');
+                if (length >= MIN_STEPS && prefixCounts.getOrDefault(key.toString(), 0) > 1) {
+                    longest = key.toString();
+                    longestLength = length;
+                }
+            }
+            if (longest != null) {
+                prepared[i][0] = new PlannedPickle((PickleWrapper) scenarios[i][0], longest, longestLength);
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Restores the snapshot of the current scenario's prefix, if its steps were left out. Call once
+     * the driver is bound and before the first step.
+     *
+     * @throws IllegalStateException when the snapshot cannot be restored; the prefix steps did not
+     *                               run, so the scenario cannot continue without it
+     */
+    public static void restore(WebDriver driver, Scenario scenario) {
+        Plan current = plan.get();
+        if (current == null || current.snapshot == null) {
+            return;
+        }
+        Snapshot snapshot = current.snapshot;
+        try {
+            URI url = URI.create(snapshot.url);
+            // cookies and storage can only be written on the snapshot's origin
+            driver.get(url.resolve("/").toString());
+            WaitUtils.waitForPageLoad(driver);
+            driver.manage().deleteAllCookies();
+            for (Cookie cookie : snapshot.cookies) {
+                driver.manage().addCookie(cookie);
+            }
+            ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE_SCRIPT, snapshot.storage);
+            driver.get(snapshot.url);
+            WaitUtils.waitForPageLoad(driver);
+        } catch (RuntimeException e) {
+            // later scenarios replay the prefix and capture a new snapshot
+            snapshots.remove(current.key, snapshot);
+            throw new IllegalStateException("Could not restore the snapshot of the first " + current.length
+                    + " steps, which were not run: " + e.getMessage(), e);
+        }
+        restored.incrementAndGet();
+        stepsRestored.addAndGet(current.length);
+        scenario.log("Restored from a snapshot, not executed:\n" + current.key.trim());
+    }
+
+    /**
+     * Counts a step of the current scenario's prefix. Call before every step.
+     */
+    public static void beforeStep() {
+        Plan current = plan.get();
+        if (current != null && current.snapshot == null) {
+            current.step++;
+        }
+    }
+
+    /**
+     * Captures (or, in verification, compares) the browser state once the last prefix step of the
+     * current scenario has passed. Call after every step.
+     */
+    public static void afterStep(WebDriver driver, Scenario scenario) {
+        Plan current = plan.get();
+        if (current == null || current.snapshot != null || current.step != current.length
+                || scenario.isFailed() || driver == null || CartSeeder.hasPending()) {
+            return;
+        }
+        Snapshot state = capture(driver);
+        if (!current.verify) {
+            if (snapshots.putIfAbsent(current.key, state) == null) {
+                captured.incrementAndGet();
+            }
+            return;
+        }
+        verified.incrementAndGet();
+        String difference = state.difference(snapshots.get(current.key));
+        if (difference != null) {
+            String message = "Snapshot of \"" + current.key.replace('\n', '/') + "\" differs from a full replay: "
+                    + difference;
+            mismatches.add(scenario.getName() + ": " + message);
+            scenario.log(message);
+        }
+    }
+
+    /**
+     * Forgets the current scenario's plan. Call after the scenario.
+     */
+    public static void clear() {
+        plan.remove();
+    }
+
+    /**
+     * Returns a one-line summary: snapshots captured, scenarios and steps restored and the outcome
+     * of the verification replays (with the first mismatches, if any).
+     */
+    public static String stats() {
+        String summary = "snapshots=" + captured.get() + " restored scenarios=" + restored.get()
+                + " restored steps=" + stepsRestored.get() + " verified=" + verified.get()
+                + " mismatches=" + mismatches.size();
+        return mismatches.isEmpty() ? summary
+                : summary + " " + mismatches.stream().limit(5).collect(Collectors.toList());
+    }
+
+    /**
+     * Steps before the first outcome step or step argument, or none for a {@value #NO_SNAPSHOT_TAG}
+     * scenario.
+     */
+    private static List<Step> candidatePrefix(Pickle pickle) {
+        List<Step> prefix = new ArrayList<>();
+        if (pickle.getTags().contains(NO_SNAPSHOT_TAG)) {
+            return prefix;
+        }
+        StepType type = StepType.GIVEN;
+        for (Step step : corePickle(pickle).getSteps()) {
+            if (step.getType().isGivenWhenThen()) {
+                type = step.getType();
+            }
+            if (type == StepType.THEN || step.getArgument() != null) {
+                break;
+            }
+            prefix.add(step);
+        }
+        return prefix;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Snapshot capture(WebDriver driver) {
+        Object storage = ((JavascriptExecutor) driver).executeScript(READ_STORAGE_SCRIPT);
+        return new Snapshot(driver.getCurrentUrl(), driver.manage().getCookies(),
+                storage instanceof Map ? new TreeMap<>((Map<String, Object>) storage) : new TreeMap<>());
+    }
+
+    private static io.cucumber.core.gherkin.Pickle corePickle(Pickle pickle) {
+        try {
+            return (io.cucumber.core.gherkin.Pickle) CORE_PICKLE.invoke(pickle);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read the steps of " + pickle.getName(), e);
+        }
+    }
+
+    private static Method corePickleAccessor() {
+        try {
+            Method method = Pickle.class.getDeclaredMethod("getPickle");
+            method.setAccessible(true);
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Constructor<Pickle> pickleConstructor() {
+        try {
+            Constructor<Pickle> constructor = Pickle.class.getDeclaredConstructor(io.cucumber.core.gherkin.Pickle.class);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A row whose pickle starts with a shared prefix. When the row runs, it plans the prefix for
+     * the running thread and, if a snapshot of the prefix exists, runs the pickle without it.
+     */
+    private static final class PlannedPickle implements PickleWrapper {
+
+        private final PickleWrapper original;
+        private final String key;
+        private final int length;
+        private Pickle running;
+
+        private PlannedPickle(PickleWrapper original, String key, int length) {
+            this.original = original;
+            this.key = key;
+            this.length = length;
+        }
+
+        @Override
+        public synchronized Pickle getPickle() {
+            // the first call is the run itself; later ones (failure reporting) only read the pickle
+            if (running != null) {
+                return running;
+            }
+            Snapshot snapshot = snapshots.get(key);
+            boolean verify = snapshot != null && VERIFY_RATE > 0
+                    && ThreadLocalRandom.current().nextDouble() < VERIFY_RATE;
+            running = original.getPickle();
+            if (snapshot != null && !verify) {
+                try {
+                    running = PICKLE_CONSTRUCTOR.newInstance(new WithoutPrefix(corePickle(running), length));
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    snapshot = null;
+                }
+            }
+            plan.set(new Plan(key, length, verify, verify ? null : snapshot));
+            return running;
+        }
+
+        @Override
+        public String toString() {
+            return original.toString();
+        }
+    }
+
+    /**
+     * A Gherkin pickle without its first steps; everything else (id, name, location, tags) is the
+     * original's, so reports attribute the run to the original scenario.
+     */
+    private static final class WithoutPrefix implements io.cucumber.core.gherkin.Pickle {
+
+        private final io.cucumber.core.gherkin.Pickle pickle;
+        private final int skip;
+
+        private WithoutPrefix(io.cucumber.core.gherkin.Pickle pickle, int skip) {
+            this.pickle = pickle;
+            this.skip = skip;
+        }
+
+        @Override
+        public List<Step> getSteps() {
+            List<Step> steps = pickle.getSteps();
+            return steps.subList(skip, steps.size());
+        }
+
+        @Override
+        public String getKeyword() {
+            return pickle.getKeyword();
+        }
+
+        @Override
+        public String getLanguage() {
+            return pickle.getLanguage();
+        }
+
+        @Override
+        public String getName() {
+            return pickle.getName();
+        }
+
+        @Override
+        public Location getLocation() {
+            return pickle.getLocation();
+        }
+
+        @Override
+        public Location getScenarioLocation() {
+            return pickle.getScenarioLocation();
+        }
+
+        @Override
+        public Optional<Location> getRuleLocation() {
+            return pickle.getRuleLocation();
+        }
+
+        @Override
+        public Optional<Location> getFeatureLocation() {
+            return pickle.getFeatureLocation();
+        }
+
+        @Override
+        public Optional<Location> getExamplesLocation() {
+            return pickle.getExamplesLocation();
+        }
+
+        @Override
+        public List<String> getTags() {
+            return pickle.getTags();
+        }
+
+        @Override
+        public URI getUri() {
+            return pickle.getUri();
+        }
+
+        @Override
+        public String getId() {
+            return pickle.getId();
+        }
+    }
+
+    /**
+     * The prefix chosen for the scenario running on this thread: the snapshot to restore, or how
+     * far the prefix has run when it is replayed.
+     */
+    private static final class Plan {
+
+        private final String key;
+        private final int length;
+        private final boolean verify;
+        private final Snapshot snapshot;
+        private int step;
+
+        private Plan(String key, int length, boolean verify, Snapshot snapshot) {
+            this.key = key;
+            this.length = length;
+            this.verify = verify;
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * Browser state after a prefix: URL, cookies and localStorage of the page's origin.
+     */
+    private static final class Snapshot {
+
+        private final String url;
+        private final List<Cookie> cookies;
+        private final Map<String, Object> storage;
+
+        private Snapshot(String url, Set<Cookie> cookies, Map<String, Object> storage) {
+            this.url = url;
+            this.cookies = new ArrayList<>(cookies);
+            this.storage = storage;
+        }
+
+        /**
+         * Describes how this state differs from another one, or returns null if it does not.
+         * Cookie expiry is ignored, since it moves with the time of the login.
+         */
+        private String difference(Snapshot other) {
+            if (other == null) {
+                return "no snapshot to compare with";
+            }
+            if (!url.equals(other.url)) {
+                return "URL " + url + " vs " + other.url;
+            }
+            if (!cookieValues().equals(other.cookieValues())) {
+                return "cookies " + cookieValues() + " vs " + other.cookieValues();
+            }
+            if (!Objects.equals(storage, other.storage)) {
+                return "localStorage " + storage + " vs " + other.storage;
+            }
+            return null;
+        }
+
+        private Map<String, String> cookieValues() {
+            Map<String, String> values = new HashMap<>();
+            for (Cookie cookie : cookies) {
+                values.put(cookie.getName(), cookie.getValue());
+            }
+            return values;
+        }
+    }
+}
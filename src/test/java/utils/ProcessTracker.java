@@ -0,0 +1,503 @@
+package utils;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.manager.SeleniumManagerOutput;
+import org.openqa.selenium.remote.service.DriverFinder;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * ProcessTracker keeps track of every driver process {@link DriverFactory} starts and the browser
+ * processes under it, and reclaims the ones that outlive their session.
+ * <p>
+ * Sessions are started on a driver service the tracker starts first, so the driver's PID (read
+ * from the service) is known before any browser exists. A sampler then records the processes
+ * under each driver while it runs (a browser is re-parented, and out of reach, once its driver
+ * dies), and measures the memory of everything the JVM started:
+ * - a session that failed to start has its driver and browser processes killed straight away
+ * - once a driver has stopped, browser processes still alive a few seconds later are leaks and
+ *   are killed
+ * - a shutdown hook stops the drivers still running and kills whatever is left under them
+ * <p>
+ * The PIDs (with their start times, so a reused PID is never touched) are also written to a
+ * registry file per JVM. {@link #sweep()} reads the files of earlier runs whose JVM is gone (a
+ * killed fork, a crashed agent) and kills their processes that are still running. Registries of
+ * live JVMs, such as parallel shards, are left alone.
+ * <p>
+ * {@link #report()} summarizes the run: drivers started, peak browsers, peak memory and the
+ * processes reclaimed; {@link #writeReport()} writes the same as JSON.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - process.tracking: true | false (default: true)
+ * - process.registry.dir: registry files (default: .cache/processes)
+ * - process.sample.seconds: time between samples (default: 2)
+ * - process.report.file: JSON report (default: target/resource-report.json)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ProcessTracker {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("process.tracking", "true"));
+
+    private static final Path REGISTRY_DIR =
+            Paths.get(System.getProperty("process.registry.dir", ".cache/processes"));
+
+    private static final long SAMPLE_SECONDS = Long.getLong("process.sample.seconds", 2);
+
+    private static final Path REPORT_FILE =
+            Paths.get(System.getProperty("process.report.file", "target/resource-report.json"));
+
+    // how long browsers get to exit after their driver stopped
+    private static final long EXIT_GRACE_MILLIS = 5_000;
+
+    private static final ProcessHandle SELF = ProcessHandle.current();
+
+    private static final Path REGISTRY_FILE = REGISTRY_DIR.resolve(SELF.pid() + ".txt");
+
+    private static final List<Launch> launches = new CopyOnWriteArrayList<>();
+
+    private static final AtomicBoolean swept = new AtomicBoolean();
+    private static final AtomicBoolean pidFieldWarned = new AtomicBoolean();
+    private static final AtomicLong started = new AtomicLong();
+    private static final AtomicLong failedStarts = new AtomicLong();
+    private static final AtomicLong peakBrowsers = new AtomicLong();
+    private static final AtomicLong peakRssKilobytes = new AtomicLong();
+    private static final AtomicLong reclaimedStale = new AtomicLong();
+    private static final AtomicLong reclaimedFailedStart = new AtomicLong();
+    private static final AtomicLong reclaimedAfterQuit = new AtomicLong();
+    private static final AtomicLong reclaimedAtShutdown = new AtomicLong();
+
+    private static ScheduledExecutorService sampler;
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(ProcessTracker::shutdown, "process-tracker-shutdown"));
+        }
+    }
+
+    private ProcessTracker() {}
+
+    /**
+     * True when driver and browser processes are tracked and reclaimed.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts the driver service, records its PID and opens a session on it. When the session
+     * cannot be created, the driver and any browser it started are killed before the error is
+     * rethrown.
+     *
+     * @param service not yet started service of the browser's driver
+     * @param options options of the session; the browser binary found for them is applied, as the
+     *                driver constructor would
+     * @param session creates the session on the started service
+     * @return the new session
+     */
+    public static <S extends DriverService, T extends WebDriver> T start(S service, MutableCapabilities options,
+                                                                         Function<S, T> session) {
+        if (!ENABLED) {
+            return session.apply(service);
+        }
+        startSampler();
+        SeleniumManagerOutput.Result found = DriverFinder.getPath(service, options);
+        service.setExecutable(found.getDriverPath());
+        String browserPath = found.getBrowserPath();
+        if (browserPath != null && !browserPath.isEmpty()) {
+            if (options instanceof ChromiumOptions) {
+                ((ChromiumOptions<?>) options).setBinary(browserPath);
+            } else if (options instanceof FirefoxOptions) {
+                ((FirefoxOptions) options).setBinary(browserPath);
+            }
+        }
+        try {
+            service.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start " + service.getExecutable(), e);
+        }
+
+        Launch launch;
+        // the fallback in pidOf skips drivers already claimed, so claim this one before the next start
+        synchronized (ProcessTracker.class) {
+            launch = new Launch(service, pidOf(service));
+            launches.add(launch);
+        }
+        started.incrementAndGet();
+        writeRegistry();
+        try {
+            T created = session.apply(service);
+            launch.recordChildren();
+            writeRegistry();
+            return created;
+        } catch (RuntimeException e) {
+            failedStarts.incrementAndGet();
+            launch.recordChildren();
+            try {
+                service.stop();
+            } catch (RuntimeException ignored) {
+            }
+            int killed = launch.killAll();
+            reclaimedFailedStart.addAndGet(killed);
+            launches.remove(launch);
+            writeRegistry();
+            if (killed > 0) {
+                RunLog.event("ProcessTracker", "Session start failed; killed " + killed
+                        + " process(es) it left behind");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Kills the processes of earlier runs whose JVM is gone and deletes their registry files.
+     * Runs once per JVM; later calls do nothing.
+     */
+    public static void sweep() {
+        if (!ENABLED || !swept.compareAndSet(false, true) || !Files.isDirectory(REGISTRY_DIR)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(REGISTRY_DIR, "*.txt")) {
+            for (Path file : files) {
+                if (!file.equals(REGISTRY_FILE)) {
+                    sweep(file);
+                }
+            }
+        } catch (IOException e) {
+            RunLog.warn("ProcessTracker", "Could not sweep " + REGISTRY_DIR + ": " + e.getMessage());
+        }
+        if (reclaimedStale.get() > 0) {
+            RunLog.summary("ProcessTracker", "Killed " + reclaimedStale.get()
+                    + " process(es) left running by earlier runs");
+        }
+    }
+
+    /**
+     * Returns a one-line summary of the processes started and reclaimed and the peak resources.
+     */
+    public static String report() {
+        sample();
+        return "drivers started=" + started.get() + " failed starts=" + failedStarts.get()
+                + " peak browsers=" + peakBrowsers.get() + " peak RSS=" + peakRssKilobytes.get() / 1024 + "MB"
+                + " reclaimed: stale=" + reclaimedStale.get() + " failed start=" + reclaimedFailedStart.get()
+                + " after quit=" + reclaimedAfterQuit.get() + " at shutdown=" + reclaimedAtShutdown.get();
+    }
+
+    /**
+     * Writes the resource report of this run as JSON. Processes still running are reclaimed by the
+     * shutdown hook after this, and only logged.
+     */
+    public static void writeReport() {
+        if (!ENABLED) {
+            return;
+        }
+        sample();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("driversStarted", started.get());
+        json.put("failedStarts", failedStarts.get());
+        json.put("peakBrowsers", peakBrowsers.get());
+        json.put("peakRssMb", peakRssKilobytes.get() / 1024);
+        Map<String, Object> reclaimed = new LinkedHashMap<>();
+        reclaimed.put("staleFromEarlierRuns", reclaimedStale.get());
+        reclaimed.put("failedStarts", reclaimedFailedStart.get());
+        reclaimed.put("afterQuit", reclaimedAfterQuit.get());
+        json.put("reclaimedProcesses", reclaimed);
+        try {
+            if (REPORT_FILE.getParent() != null) {
+                Files.createDirectories(REPORT_FILE.getParent());
+            }
+            Files.writeString(REPORT_FILE, new Json().toJson(json));
+        } catch (IOException e) {
+            RunLog.warn("ProcessTracker", "Could not write " + REPORT_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resident memory of the process in kilobytes (VmRSS from /proc), or 0 when it cannot be read.
+     */
+    static long rssKilobytes(ProcessHandle process) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", process.pid() + "/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    // "VmRSS:    123456 kB"
+                    return Long.parseLong(line.substring("VmRSS:".length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // exited meanwhile, or not Linux
+        }
+        return 0;
+    }
+
+    private static synchronized void startSampler() {
+        if (sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "process-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(ProcessTracker::sample, SAMPLE_SECONDS, SAMPLE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records the processes under each running driver, reclaims what outlived stopped drivers and
+     * updates the peaks.
+     */
+    private static synchronized void sample() {
+        try {
+            long browsers = 0;
+            boolean changed = false;
+            for (Launch launch : launches) {
+                if (launch.service.isRunning()) {
+                    changed |= launch.recordChildren();
+                    if (launch.hasLiveChildren()) {
+                        browsers++;
+                    }
+                } else if (launch.stoppedAtMillis == 0) {
+                    launch.stoppedAtMillis = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - launch.stoppedAtMillis > EXIT_GRACE_MILLIS) {
+                    int killed = launch.killAll();
+                    if (killed > 0) {
+                        reclaimedAfterQuit.addAndGet(killed);
+                        RunLog.event("ProcessTracker", "Killed " + killed + " process(es) still running after "
+                                + "their driver (PID " + launch.driverPid + ") stopped");
+                    }
+                    launches.remove(launch);
+                    changed = true;
+                }
+            }
+            peakBrowsers.accumulateAndGet(browsers, Math::max);
+            long rss = SELF.descendants().mapToLong(ProcessTracker::rssKilobytes).sum();
+            peakRssKilobytes.accumulateAndGet(rss, Math::max);
+            if (changed) {
+                writeRegistry();
+            }
+        } catch (RuntimeException e) {
+            // a broken sample must not stop the sampler
+            RunLog.warn("ProcessTracker", "Sample failed: " + e.getMessage());
+        }
+    }
+
+    private static void shutdown() {
+        synchronized (ProcessTracker.class) {
+            if (sampler != null) {
+                sampler.shutdownNow();
+            }
+        }
+        int killed = 0;
+        for (Launch launch : launches) {
+            if (launch.service.isRunning()) {
+                launch.recordChildren();
+                try {
+                    launch.service.stop();
+                } catch (RuntimeException ignored) {
+                }
+            }
+            killed += launch.killAll();
+        }
+        launches.clear();
+        reclaimedAtShutdown.addAndGet(killed);
+        try {
+            Files.deleteIfExists(REGISTRY_FILE);
+        } catch (IOException ignored) {
+        }
+        if (killed > 0) {
+            RunLog.event("ProcessTracker", "Killed " + killed + " driver/browser process(es) at shutdown");
+        }
+    }
+
+    private static void sweep(Path file) {
+        try {
+            List<String> lines = Files.readAllLines(file);
+            if (!lines.isEmpty()) {
+                String[] owner = lines.get(0).split(" ");
+                if (isRunning(Long.parseLong(owner[0]), Long.parseLong(owner[1]))) {
+                    return;
+                }
+                for (String line : lines.subList(1, lines.size())) {
+                    String[] process = line.split(" ");
+                    if (kill(Long.parseLong(process[0]), Long.parseLong(process[1]))) {
+                        reclaimedStale.incrementAndGet();
+                    }
+                }
+            }
+            Files.deleteIfExists(file);
+        } catch (IOException | RuntimeException e) {
+            RunLog.warn("ProcessTracker", "Could not sweep " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites this JVM's registry: its own PID and start time, then one line per tracked process.
+     */
+    private static synchronized void writeRegistry() {
+        StringBuilder text = new StringBuilder().append(SELF.pid()).append(' ').append(startMillis(SELF)).append('\n');
+        for (Launch launch : launches) {
+            launch.recorded().forEach((pid, start) -> text.append(pid).append(' ').append(start).append('\n'));
+        }
+        try {
+            Files.createDirectories(REGISTRY_DIR);
+            Files.writeString(REGISTRY_FILE, text);
+        } catch (IOException e) {
+            RunLog.warn("ProcessTracker", "Could not write " + REGISTRY_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isRunning(long pid, long startMillis) {
+        Optional<ProcessHandle> process = ProcessHandle.of(pid);
+        return process.isPresent() && process.get().isAlive() && startMillis != -1
+                && startMillis(process.get()) == startMillis;
+    }
+
+    /**
+     * Kills the process if it is still the one that was recorded (same start time), and any
+     * processes under it.
+     */
+    private static boolean kill(long pid, long startMillis) {
+        if (!isRunning(pid, startMillis)) {
+            return false;
+        }
+        ProcessHandle process = ProcessHandle.of(pid).get();
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        return process.destroyForcibly();
+    }
+
+    private static long startMillis(ProcessHandle process) {
+        return process.info().startInstant().map(Instant::toEpochMilli).orElse(-1L);
+    }
+
+    /**
+     * Reads the PID of the driver process from the service. Selenium does not expose it, so this
+     * reads the private {@code DriverService.process} and {@code ExternalProcess.process} fields
+     * (tested against Selenium 4.18.1). When those are gone, it warns once and falls back to
+     * {@link #childPidOf(DriverService)}; -1 when both fail.
+     */
+    private static long pidOf(DriverService service) {
+        try {
+            Field externalField = DriverService.class.getDeclaredField("process");
+            externalField.setAccessible(true);
+            Object external = externalField.get(service);
+            Field processField = external.getClass().getDeclaredField("process");
+            processField.setAccessible(true);
+            return ((Process) processField.get(external)).pid();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (pidFieldWarned.compareAndSet(false, true)) {
+                RunLog.warn("ProcessTracker", "Could not read the driver PID from Selenium's DriverService ("
+                        + e + "); looking for drivers among this JVM's child processes instead");
+            }
+            long pid = childPidOf(service);
+            if (pid == -1) {
+                RunLog.warn("ProcessTracker", "No child process of this JVM runs " + service.getExecutable()
+                        + "; its browsers are not tracked");
+            }
+            return pid;
+        }
+    }
+
+    /**
+     * The most recently started child process of this JVM running the service's executable that
+     * no other launch has claimed yet; -1 when there is none. Call while holding the class lock.
+     */
+    private static long childPidOf(DriverService service) {
+        Path executable = Paths.get(service.getExecutable()).getFileName();
+        List<Long> claimed = new ArrayList<>();
+        for (Launch launch : launches) {
+            claimed.add(launch.driverPid);
+        }
+        return SELF.children()
+                .filter(child -> !claimed.contains(child.pid()))
+                .filter(child -> child.info().command()
+                        .map(command -> Paths.get(command).getFileName().equals(executable))
+                        .orElse(false))
+                .max((a, b) -> Long.compare(startMillis(a), startMillis(b)))
+                .map(ProcessHandle::pid)
+                .orElse(-1L);
+    }
+
+    /**
+     * One driver service and the processes recorded under it.
+     */
+    private static final class Launch {
+
+        private final DriverService service;
+        private final long driverPid;
+        // PID -> start time; the driver first, then every process seen under it
+        private final Map<Long, Long> processes = new LinkedHashMap<>();
+        // guarded by ProcessTracker.class
+        private long stoppedAtMillis;
+
+        private Launch(DriverService service, long driverPid) {
+            this.service = service;
+            this.driverPid = driverPid;
+            if (driverPid != -1) {
+                ProcessHandle.of(driverPid).ifPresent(driver -> processes.put(driverPid, startMillis(driver)));
+            }
+        }
+
+        /**
+         * Adds the processes currently under the driver; returns true if any was new.
+         */
+        private synchronized boolean recordChildren() {
+            Optional<ProcessHandle> driver = driverPid == -1 ? Optional.empty() : ProcessHandle.of(driverPid);
+            if (driver.isEmpty()) {
+                return false;
+            }
+            List<ProcessHandle> children = new ArrayList<>();
+            driver.get().descendants().forEach(children::add);
+            boolean added = false;
+            for (ProcessHandle child : children) {
+                added |= processes.putIfAbsent(child.pid(), startMillis(child)) == null;
+            }
+            return added;
+        }
+
+        private synchronized Map<Long, Long> recorded() {
+            return new LinkedHashMap<>(processes);
+        }
+
+        private synchronized boolean hasLiveChildren() {
+            return processes.entrySet().stream()
+                    .anyMatch(entry -> entry.getKey() != driverPid && isRunning(entry.getKey(), entry.getValue()));
+        }
+
+        /**
+         * Kills every recorded process still running, browsers before their driver.
+         */
+        private synchronized int killAll() {
+            List<Map.Entry<Long, Long>> recorded = new ArrayList<>(processes.entrySet());
+            int killed = 0;
+            for (int i = recorded.size() - 1; i >= 0; i--) {
+                if (kill(recorded.get(i).getKey(), recorded.get(i).getValue())) {
+                    killed++;
+                }
+            }
+            return killed;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReportMerger combines the reports written by separate shard JVMs into single reports.
+ * - Extent: every shard's JSON archive ({@code extent.json}) is replayed into one Spark report
+ * - Cucumber: the feature arrays of every shard's {@code cucumber.json} are concatenated
+ * <p>
+ * Screenshot links keep working because all shards write screenshots to the shared
+ * extent-reports/screenshots folder next to the merged report.
+ * <p>
+ * Extent restores failures (Throwables) from its archive reflectively, which needs
+ * {@code --add-opens java.base/java.lang=ALL-UNNAMED} on Java 17+; {@code runners.ShardLauncher}
+ * therefore runs {@link #main(String[])} in its own JVM.
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ReportMerger {
+
+    public static final String EXTENT_ARCHIVE = "extent.json";
+    public static final String CUCUMBER_JSON = "cucumber.json";
+
+    private ReportMerger() {}
+
+    /**
+     * Usage: ReportMerger &lt;spark report&gt; &lt;cucumber json&gt; &lt;shard dir&gt;...
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: ReportMerger <spark report> <cucumber json> <shard dir>...");
+        }
+        Path sparkOut = Paths.get(args[0]);
+        Path cucumberOut = Paths.get(args[1]);
+        List<Path> shardDirs = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            shardDirs.add(Paths.get(args[i]));
+        }
+        int archives = mergeExtent(shardDirs, sparkOut);
+        int features = mergeCucumberJson(shardDirs, cucumberOut);
+        RunLog.event("ReportMerger", "Merged " + archives + " Extent archives into " + sparkOut
+                + " and " + features + " features into " + cucumberOut);
+    }
+
+    /**
+     * Replays the Extent JSON archives found in the shard folders into one Spark HTML report.
+     *
+     * @param shardDirs folders containing {@value #EXTENT_ARCHIVE}; missing archives are skipped
+     * @param sparkOut  merged report path, e.g. extent-reports/index.html
+     * @return number of archives merged
+     */
+    public static int mergeExtent(List<Path> shardDirs, Path sparkOut) throws IOException {
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(new ExtentSparkReporter(sparkOut.toFile()));
+        int merged = 0;
+        for (Path dir : shardDirs) {
+            Path archive = dir.resolve(EXTENT_ARCHIVE);
+            if (Files.isRegularFile(archive)) {
+                extent.createDomainFromJsonArchive(archive.toFile());
+                merged++;
+            }
+        }
+        extent.flush();
+        return merged;
+    }
+
+    /**
+     * Concatenates the Cucumber JSON reports found in the shard folders.
+     *
+     * @param shardDirs folders containing {@value #CUCUMBER_JSON}; missing or empty files are skipped
+     * @param out       merged report path, e.g. target/cucumber.json
+     * @return number of features in the merged report
+     */
+    public static int mergeCucumberJson(List<Path> shardDirs, Path out) throws IOException {
+        Json json = new Json();
+        List<Map<String, Object>> features = new ArrayList<>();
+        for (Path dir : shardDirs) {
+            Path report = dir.resolve(CUCUMBER_JSON);
+            if (Files.isRegularFile(report) && Files.size(report) > 0) {
+                features.addAll(json.toType(Files.readString(report), Json.LIST_OF_MAPS_TYPE));
+            }
+        }
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.writeString(out, json.toJson(features));
+        return features.size();
+    }
+}
@@ -0,0 +1,103 @@
+package utils;
+
+import com.aventstack.extentreports.service.ExtentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * RunLog is the one place the framework writes to the console, in three kinds of lines:
+ * - events: something happened once (a browser was pre-warmed, the parallelism limit changed, a
+ *   file was written); printed only with log.verbose=true
+ * - warnings: something did not work as configured (interception unavailable, a file could not
+ *   be written); always printed
+ * - summary: one line per component describing the whole run (pool hits, blocked traffic,
+ *   reclaimed processes); collected and written once by {@link #writeSummary(boolean)}, as a
+ *   "Run summary" block on the console and in the Extent report's Logs view
+ * <p>
+ * Every line starts with the component in brackets, e.g. {@code [DriverPool]}.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - log.verbose: true | false (default: false)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class RunLog {
+
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("log.verbose", "false"));
+
+    private static final Queue<String> summary = new ConcurrentLinkedQueue<>();
+
+    private RunLog() {}
+
+    /**
+     * True when event lines are printed.
+     */
+    public static boolean isVerbose() {
+        return VERBOSE;
+    }
+
+    /**
+     * Prints a per-event line when log.verbose is on.
+     */
+    public static void event(String component, String message) {
+        if (VERBOSE) {
+            System.out.println(line(component, message));
+        }
+    }
+
+    /**
+     * Prints a line about something that did not work as configured.
+     */
+    public static void warn(String component, String message) {
+        System.out.println(line(component, message));
+    }
+
+    /**
+     * Adds a line to the run summary, in call order.
+     */
+    public static void summary(String component, String message) {
+        summary.add(line(component, message));
+    }
+
+    /**
+     * Prints the collected summary lines as one block and forgets them. With {@code toReport}, the
+     * block is also added to the Extent report's Logs view and the report is flushed, so anything
+     * added to the report earlier in the suite's end is written too.
+     *
+     * @param toReport true from a suite that produces an Extent report
+     */
+    public static void writeSummary(boolean toReport) {
+        List<String> lines = new ArrayList<>();
+        String next;
+        while ((next = summary.poll()) != null) {
+            lines.add(next);
+        }
+        if (!lines.isEmpty()) {
+            System.out.println(line("RunLog", "Run summary"));
+            lines.forEach(System.out::println);
+        }
+        if (!toReport) {
+            return;
+        }
+        try {
+            if (!lines.isEmpty()) {
+                ExtentService.getInstance().addTestRunnerOutput(List.of(
+                        "<h6>Run summary</h6>", "<pre>" + escape(String.join("\n", lines)) + "</pre>"));
+            }
+            ExtentService.flush();
+        } catch (Exception e) {
+            warn("RunLog", "Could not add the run summary to the Extent report: " + e.getMessage());
+        }
+    }
+
+    private static String line(String component, String message) {
+        return "[" + component + "] " + message;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,403 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SauceDemoStub is an in-process stand-in for www.saucedemo.com, so runs do not depend on the
+ * public site (air-gapped CI, repeatable performance runs).
+ * <p>
+ * It serves a functional clone of the pages the suite uses: login, inventory (sorting, add/remove),
+ * cart, checkout information, overview and completion. Like the real app, all state lives in the
+ * browser (the {@code session-username} cookie and the {@code cart-contents} localStorage entry),
+ * so {@link FastAuth} and {@link CartSeeder} work unchanged. Element ids, classes and data-test
+ * attributes match the real site, as do the users and error messages.
+ * <p>
+ * The server binds to the loopback interface and starts in a few milliseconds; the suite listener
+ * starts it before the first scenario and stops it at suite end. Page objects and URL checks build
+ * their URLs from {@link #baseUrl()}, which points at the stub when it is enabled.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - stub.enabled: true | false (default: false)
+ * - stub.port: port to bind (default: 0, any free port)
+ * - stub.latency.ms: delay added to every page response (default: 0)
+ * - stub.catalog.size: number of products (default: 6; the first six are the SauceDemo products
+ *   from products.properties, extra ones are generated with deterministic names and prices)
+ * - base.url: application URL when the stub is disabled (default: https://www.saucedemo.com/)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class SauceDemoStub {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("stub.enabled", "false"));
+
+    private static final int PORT = Integer.getInteger("stub.port", 0);
+
+    private static final long LATENCY_MILLIS = Long.getLong("stub.latency.ms", 0L);
+
+    private static final int CATALOG_SIZE = Integer.getInteger("stub.catalog.size", 6);
+
+    private static final String BASE_URL = System.getProperty("base.url", "https://www.saucedemo.com/");
+
+    private static final String CATALOG_RESOURCE = "products.properties";
+
+    // Prices of the real SauceDemo products, by product id
+    private static final double[] PRICES = {9.99, 15.99, 7.99, 15.99, 29.99, 49.99};
+
+    private static final String[] PAGES = {
+            "inventory.html", "cart.html", "checkout-step-one.html", "checkout-step-two.html", "checkout-complete.html"};
+
+    // Client-side app shared by every page; rendering is picked by the body's data-page attribute
+    private static final String APP_SCRIPT = String.join("\n",
+            "var USERS = ['standard_user', 'locked_out_user', 'problem_user', 'performance_glitch_user',",
+            "  'error_user', 'visual_user'];",
+            "var SORTS = {",
+            "  az: function (a, b) { return a.name.localeCompare(b.name); },",
+            "  za: function (a, b) { return b.name.localeCompare(a.name); },",
+            "  lohi: function (a, b) { return a.price - b.price || a.name.localeCompare(b.name); },",
+            "  hilo: function (a, b) { return b.price - a.price || a.name.localeCompare(b.name); }",
+            "};",
+            "var sortKey = 'az';",
+            "function $(id) { return document.getElementById(id); }",
+            "function esc(s) { return String(s).replace(/[&<>\"']/g, function (c) { return '&#' + c.charCodeAt(0) + ';'; }); }",
+            "function slug(name) { return name.toLowerCase().replace(/\\s+/g, '-'); }",
+            "function money(n) { return '$' + n.toFixed(2); }",
+            "function product(id) {",
+            "  for (var i = 0; i < PRODUCTS.length; i++) { if (PRODUCTS[i].id === id) { return PRODUCTS[i]; } }",
+            "  return null;",
+            "}",
+            "function currentUser() {",
+            "  var m = document.cookie.match(/(?:^|;\\s*)session-username=([^;]*)/);",
+            "  return m ? decodeURIComponent(m[1]) : null;",
+            "}",
+            "function cart() {",
+            "  try { return JSON.parse(localStorage.getItem('cart-contents') || '[]'); } catch (e) { return []; }",
+            "}",
+            "function saveCart(ids) {",
+            "  if (ids.length) { localStorage.setItem('cart-contents', JSON.stringify(ids)); }",
+            "  else { localStorage.removeItem('cart-contents'); }",
+            "}",
+            "function toggle(id) {",
+            "  var ids = cart();",
+            "  var at = ids.indexOf(id);",
+            "  if (at < 0) { ids.push(id); } else { ids.splice(at, 1); }",
+            "  saveCart(ids);",
+            "  render();",
+            "}",
+            "function showError(message) {",
+            "  $('error').innerHTML = message",
+            "    ? '<h3 data-test=\"error\">' + esc(message) + '</h3>' : '';",
+            "}",
+            "function header() {",
+            "  var count = cart().length;",
+            "  return '<div class=\"primary_header\"><div class=\"app_logo\">Swag Labs</div>'",
+            "    + '<div id=\"shopping_cart_container\" class=\"shopping_cart_container\">'",
+            "    + '<a class=\"shopping_cart_link\" data-test=\"shopping-cart-link\" href=\"cart.html\">'",
+            "    + (count ? '<span class=\"shopping_cart_badge\" data-test=\"shopping-cart-badge\">' + count + '</span>' : '')",
+            "    + '</a></div></div>';",
+            "}",
+            "function titleLink(p) {",
+            "  return '<a href=\"#\" id=\"item_' + p.id + '_title_link\" data-test=\"item-' + p.id + '-title-link\">'",
+            "    + '<div class=\"inventory_item_name\" data-test=\"inventory-item-name\">' + esc(p.name) + '</div></a>';",
+            "}",
+            "function button(p, inCart, extraClass) {",
+            "  var action = inCart ? 'remove-' : 'add-to-cart-';",
+            "  return '<button class=\"btn ' + (inCart ? 'btn_secondary' : 'btn_primary') + ' btn_small ' + extraClass + '\"'",
+            "    + ' id=\"' + action + esc(slug(p.name)) + '\" data-test=\"' + action + esc(slug(p.name)) + '\"'",
+            "    + ' onclick=\"toggle(' + p.id + ')\">' + (inCart ? 'Remove' : 'Add to cart') + '</button>';",
+            "}",
+            "function cartItems(removable) {",
+            "  var html = '';",
+            "  var ids = cart();",
+            "  for (var i = 0; i < ids.length; i++) {",
+            "    var p = product(ids[i]);",
+            "    if (!p) { continue; }",
+            "    html += '<div class=\"cart_item\" data-test=\"inventory-item\"><div class=\"cart_quantity\">1</div>'",
+            "      + '<div class=\"cart_item_label\">' + titleLink(p)",
+            "      + '<div class=\"inventory_item_desc\">' + esc(p.desc) + '</div>'",
+            "      + '<div class=\"item_pricebar\"><div class=\"inventory_item_price\" data-test=\"inventory-item-price\">'",
+            "      + money(p.price) + '</div>' + (removable ? button(p, true, 'cart_button') : '') + '</div></div></div>';",
+            "  }",
+            "  return '<div class=\"cart_list\" data-test=\"cart-list\">' + html + '</div>';",
+            "}",
+            "var PAGES = {",
+            "  login: function () {",
+            "    $('login_form').onsubmit = function (event) {",
+            "      event.preventDefault();",
+            "      var user = $('user-name').value;",
+            "      var pass = $('password').value;",
+            "      if (!user) { return showError('Epic sadface: Username is required'); }",
+            "      if (!pass) { return showError('Epic sadface: Password is required'); }",
+            "      if (USERS.indexOf(user) < 0 || pass !== 'secret_sauce') {",
+            "        return showError('Epic sadface: Username and password do not match any user in this service');",
+            "      }",
+            "      if (user === 'locked_out_user') { return showError('Epic sadface: Sorry, this user has been locked out.'); }",
+            "      document.cookie = 'session-username=' + encodeURIComponent(user) + '; path=/; max-age=600';",
+            "      window.location.href = 'inventory.html';",
+            "    };",
+            "  },",
+            "  inventory: function () {",
+            "    var ids = cart();",
+            "    var sorted = PRODUCTS.slice().sort(SORTS[sortKey]);",
+            "    var html = '';",
+            "    for (var i = 0; i < sorted.length; i++) {",
+            "      var p = sorted[i];",
+            "      html += '<div class=\"inventory_item\" data-test=\"inventory-item\">'",
+            "        + '<div class=\"inventory_item_description\"><div class=\"inventory_item_label\">' + titleLink(p)",
+            "        + '<div class=\"inventory_item_desc\">' + esc(p.desc) + '</div></div>'",
+            "        + '<div class=\"pricebar\"><div class=\"inventory_item_price\" data-test=\"inventory-item-price\">'",
+            "        + money(p.price) + '</div>' + button(p, ids.indexOf(p.id) >= 0, 'btn_inventory') + '</div></div></div>';",
+            "    }",
+            "    $('app').innerHTML = header()",
+            "      + '<div class=\"header_secondary_container\"><span class=\"title\">Products</span>'",
+            "      + '<select class=\"product_sort_container\" data-test=\"product-sort-container\">'",
+            "      + '<option value=\"az\">Name (A to Z)</option><option value=\"za\">Name (Z to A)</option>'",
+            "      + '<option value=\"lohi\">Price (low to high)</option><option value=\"hilo\">Price (high to low)</option>'",
+            "      + '</select></div>'",
+            "      + '<div id=\"inventory_container\" class=\"inventory_container\"><div class=\"inventory_list\">'",
+            "      + html + '</div></div>';",
+            "    var select = document.querySelector('select.product_sort_container');",
+            "    select.value = sortKey;",
+            "    select.onchange = function () { sortKey = select.value; render(); };",
+            "  },",
+            "  cart: function () {",
+            "    $('app').innerHTML = header() + '<span class=\"title\">Your Cart</span>' + cartItems(true)",
+            "      + '<button id=\"continue-shopping\" class=\"btn btn_secondary back\" data-test=\"continue-shopping\"'",
+            "      + ' onclick=\"window.location.href=\\'inventory.html\\'\">Continue Shopping</button>'",
+            "      + '<button id=\"checkout\" class=\"btn btn_action checkout_button\" data-test=\"checkout\"'",
+            "      + ' onclick=\"window.location.href=\\'checkout-step-one.html\\'\">Checkout</button>';",
+            "  },",
+            "  information: function () {",
+            "    $('app').innerHTML = header() + '<span class=\"title\">Checkout: Your Information</span>'",
+            "      + '<form id=\"information_form\">'",
+            "      + '<input id=\"first-name\" data-test=\"firstName\" class=\"input_error form_input\" placeholder=\"First Name\">'",
+            "      + '<input id=\"last-name\" data-test=\"lastName\" class=\"input_error form_input\" placeholder=\"Last Name\">'",
+            "      + '<input id=\"postal-code\" data-test=\"postalCode\" class=\"input_error form_input\" placeholder=\"Zip/Postal Code\">'",
+            "      + '<div id=\"error\" class=\"error-message-container\"></div>'",
+            "      + '<input type=\"submit\" id=\"continue\" data-test=\"continue\" class=\"submit-button btn btn_primary\" value=\"Continue\">'",
+            "      + '</form>';",
+            "    $('information_form').onsubmit = function (event) {",
+            "      event.preventDefault();",
+            "      if (!$('first-name').value) { return showError('Error: First Name is required'); }",
+            "      if (!$('last-name').value) { return showError('Error: Last Name is required'); }",
+            "      if (!$('postal-code').value) { return showError('Error: Postal Code is required'); }",
+            "      window.location.href = 'checkout-step-two.html';",
+            "    };",
+            "  },",
+            "  overview: function () {",
+            "    var total = 0;",
+            "    var ids = cart();",
+            "    for (var i = 0; i < ids.length; i++) { total += product(ids[i]) ? product(ids[i]).price : 0; }",
+            "    var tax = Math.round(total * 8) / 100;",
+            "    $('app').innerHTML = header() + '<span class=\"title\">Checkout: Overview</span>' + cartItems(false)",
+            "      + '<div class=\"summary_info\">'",
+            "      + '<div class=\"summary_subtotal_label\" data-test=\"subtotal-label\">Item total: ' + money(total) + '</div>'",
+            "      + '<div class=\"summary_tax_label\" data-test=\"tax-label\">Tax: ' + money(tax) + '</div>'",
+            "      + '<div class=\"summary_total_label\" data-test=\"total-label\">Total: ' + money(total + tax) + '</div>'",
+            "      + '</div><button id=\"finish\" class=\"btn btn_action cart_button\" data-test=\"finish\">Finish</button>';",
+            "    $('finish').onclick = function () {",
+            "      saveCart([]);",
+            "      window.location.href = 'checkout-complete.html';",
+            "    };",
+            "  },",
+            "  complete: function () {",
+            "    $('app').innerHTML = header() + '<span class=\"title\">Checkout: Complete!</span>'",
+            "      + '<div id=\"checkout_complete_container\" class=\"checkout_complete_container\">'",
+            "      + '<h2 class=\"complete-header\" data-test=\"complete-header\">Thank you for your order!</h2>'",
+            "      + '<button id=\"back-to-products\" class=\"btn btn_primary btn_small\" data-test=\"back-to-products\"'",
+            "      + ' onclick=\"window.location.href=\\'inventory.html\\'\">Back Home</button></div>';",
+            "  }",
+            "};",
+            "function render() {",
+            "  var page = document.body.getAttribute('data-page');",
+            "  if (page !== 'login' && !currentUser()) { window.location.replace('./'); return; }",
+            "  PAGES[page]();",
+            "}",
+            "render();");
+
+    private static final String LOGIN_BODY = String.join("\n",
+            "<div class=\"login_logo\">Swag Labs</div>",
+            "<form id=\"login_form\">",
+            "<input id=\"user-name\" name=\"user-name\" data-test=\"username\" class=\"input_error form_input\" placeholder=\"Username\">",
+            "<input id=\"password\" name=\"password\" type=\"password\" data-test=\"password\" class=\"input_error form_input\" placeholder=\"Password\">",
+            "<div id=\"error\" class=\"error-message-container\"></div>",
+            "<input type=\"submit\" id=\"login-button\" name=\"login-button\" data-test=\"login-button\" class=\"submit-button btn_action\" value=\"Login\">",
+            "</form>");
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+    private static String stubUrl;
+
+    private SauceDemoStub() {}
+
+    /**
+     * Returns true if runs should use the local stand-in instead of the public site.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Base URL of the application under test, always ending with a slash. Starts the stub on
+     * first use when it is enabled.
+     */
+    public static String baseUrl() {
+        if (ENABLED) {
+            return start();
+        }
+        return BASE_URL.endsWith("/") ? BASE_URL : BASE_URL + "/";
+    }
+
+    /**
+     * Resolves an application path such as {@code /} or {@code /inventory.html} against the
+     * base URL. Absolute http(s) URLs are returned unchanged.
+     */
+    public static String url(String path) {
+        if (path.startsWith("http://") || path.startsWith("https://")) {
+            return path;
+        }
+        return baseUrl() + (path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    /**
+     * Starts the stub if it is not running yet.
+     *
+     * @return the stub's base URL
+     */
+    public static synchronized String start() {
+        if (server != null) {
+            return stubUrl;
+        }
+        long startNanos = System.nanoTime();
+        String catalogJson = catalog(CATALOG_SIZE);
+        Map<String, byte[]> pages = new LinkedHashMap<>();
+        pages.put("/", page("login", LOGIN_BODY, catalogJson));
+        pages.put("/index.html", pages.get("/"));
+        String[] names = {"inventory", "cart", "information", "overview", "complete"};
+        for (int i = 0; i < PAGES.length; i++) {
+            pages.put("/" + PAGES[i], page(names[i], "", catalogJson));
+        }
+
+        try {
+            HttpServer created = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+            // virtual threads, so injected latency does not tie up a platform thread per request
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            created.setExecutor(executor);
+            created.createContext("/", exchange -> serve(exchange, pages));
+            created.start();
+            server = created;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start SauceDemo stub on port " + PORT, e);
+        }
+        stubUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+        RunLog.event("SauceDemoStub", "Serving " + CATALOG_SIZE + " products at " + stubUrl
+                + " (latency " + LATENCY_MILLIS + " ms, started in "
+                + (System.nanoTime() - startNanos) / 1_000_000 + " ms)");
+        return stubUrl;
+    }
+
+    /**
+     * Stops the stub if it is running.
+     */
+    public static synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+        RunLog.event("SauceDemoStub", "Stopped");
+    }
+
+    private static void serve(HttpExchange exchange, Map<String, byte[]> pages) throws IOException {
+        try (exchange) {
+            byte[] body = pages.get(exchange.getRequestURI().getPath());
+            if (LATENCY_MILLIS > 0) {
+                try {
+                    Thread.sleep(LATENCY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (body == null || !"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] page(String name, String body, String catalogJson) {
+        String html = "<!DOCTYPE html>\n<html lang=\"en\"><head><meta charset=\"utf-8\"><title>Swag Labs</title></head>\n"
+                + "<body data-page=\"" + name + "\"><div id=\"app\">" + body + "</div>\n"
+                + "<script>\nvar PRODUCTS = " + catalogJson + ";\n" + APP_SCRIPT + "\n</script>\n</body></html>\n";
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds the catalog as a JavaScript array literal: the SauceDemo products first, then
+     * generated ones up to the given size. Written by hand rather than with Selenium's Json,
+     * whose first use alone costs a few hundred milliseconds.
+     */
+    private static String catalog(int size) {
+        Properties properties = new Properties();
+        try (InputStream in = SauceDemoStub.class.getClassLoader().getResourceAsStream(CATALOG_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Catalog resource not found: " + CATALOG_RESOURCE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read catalog " + CATALOG_RESOURCE, e);
+        }
+        Map<Integer, String> names = new TreeMap<>();
+        for (String id : properties.stringPropertyNames()) {
+            names.put(Integer.parseInt(id.trim()), properties.getProperty(id).trim());
+        }
+
+        StringBuilder products = new StringBuilder("[");
+        for (int id = 0; id < size; id++) {
+            String name = names.get(id);
+            double price = id < PRICES.length ? PRICES[id] : 5.99 + (id * 37 % 4500) / 100.0;
+            if (name == null) {
+                name = String.format(Locale.ROOT, "Sauce Labs Sample Item %04d", id);
+            }
+            products.append(id == 0 ? "" : ",\n")
+                    .append("{\"id\":").append(id)
+                    .append(",\"name\":").append(quote(name))
+                    .append(",\"desc\":").append(quote("Stand-in product " + id + " served by the local SauceDemo stub."))
+                    .append(",\"price\":").append(String.format(Locale.ROOT, "%.2f", price))
+                    .append('}');
+        }
+        return products.append(']').toString();
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"").replace("<", "\\u003c") + '"';
+    }
+}
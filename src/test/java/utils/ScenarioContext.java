@@ -0,0 +1,60 @@
+package utils;
+
+import io.cucumber.java.Scenario;
+
+/**
+ * ScenarioContext exposes the Cucumber {@link Scenario} running on the current thread, so that
+ * utilities and step definitions can react to its tags without a hook of their own.
+ * <p>
+ * Bound in {@code hooks.Hooks} before each scenario and cleared after it.
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ScenarioContext {
+
+    private static final ThreadLocal<Scenario> scenario = new ThreadLocal<>();
+    private static final ThreadLocal<Long> startNanos = new ThreadLocal<>();
+
+    private ScenarioContext() {}
+
+    /**
+     * Binds the scenario that is about to run on this thread.
+     */
+    public static void start(Scenario current) {
+        scenario.set(current);
+        startNanos.set(System.nanoTime());
+    }
+
+    /**
+     * Unbinds the scenario from this thread.
+     */
+    public static void clear() {
+        scenario.remove();
+        startNanos.remove();
+    }
+
+    /**
+     * Returns the scenario running on this thread, or null outside a scenario.
+     */
+    public static Scenario current() {
+        return scenario.get();
+    }
+
+    /**
+     * Milliseconds since the current scenario was bound, or -1 outside a scenario.
+     */
+    public static long elapsedMillis() {
+        Long start = startNanos.get();
+        return start == null ? -1 : (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Returns true if the current scenario (or its feature / examples) carries the tag.
+     *
+     * @param tag tag including the leading '@'
+     */
+    public static boolean hasTag(String tag) {
+        Scenario current = scenario.get();
+        return current != null && current.getSourceTagNames().contains(tag);
+    }
+}
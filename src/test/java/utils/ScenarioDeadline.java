@@ -0,0 +1,336 @@
+package utils;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScenarioDeadline gives every scenario a time budget and kills browser sessions that stop
+ * answering, so one bad page costs a scenario at most its budget instead of blocking a worker
+ * through timeout after timeout.
+ * <p>
+ * The budget starts once the scenario's browser is bound. Every wait in {@link WaitUtils} (and so
+ * every {@link ElementActions} action, which waits before acting) is cut to what is left of it;
+ * once nothing is left, waits fail at once with {@link ExceededException}.
+ * <p>
+ * As a {@link TrackedDriver.Listener} it also notes which WebDriver command each scenario thread is
+ * in. A watchdog thread checks every second and kills the session of a scenario whose command
+ * has been running for longer than {@code watchdog.command.timeout.seconds}, or that is still in
+ * a command past its budget (plus a grace period). Killing quits the session from the watchdog's
+ * side, which stops its driver process and makes the blocked command fail; with
+ * {@link DriverPool} the session's place is freed right away and a replacement started, so the
+ * pool does not wait for the scenario to unwind.
+ * <p>
+ * A scenario that ran out of budget or lost its session is reported as timed out by the hooks,
+ * with the evidence collected at that moment (the command in flight and, for a killed session,
+ * where the scenario thread was blocked).
+ * <p>
+ * Configuration is controlled via system properties:
+ * - scenario.timeout.seconds: budget of each scenario (default: 0, no budget)
+ * - watchdog.command.timeout.seconds: a single command running longer than this is treated as
+ *   hung (default: 120; 0 disables)
+ * - watchdog.grace.seconds: how long a command may run past the scenario budget (default: 5)
+ *
+ * @author NiteshJainQaTestology
+ */
+public class ScenarioDeadline implements TrackedDriver.Listener {
+
+    private static final long BUDGET_SECONDS = Long.getLong("scenario.timeout.seconds", 0);
+
+    private static final long COMMAND_TIMEOUT_SECONDS = Long.getLong("watchdog.command.timeout.seconds", 120);
+
+    private static final long GRACE_SECONDS = Long.getLong("watchdog.grace.seconds", 5);
+
+    private static final ScenarioDeadline INSTANCE = new ScenarioDeadline();
+
+    private static final ThreadLocal<Budget> current = new ThreadLocal<>();
+
+    private static final Map<Thread, Budget> active = new ConcurrentHashMap<>();
+
+    private static final AtomicLong timedOut = new AtomicLong();
+    private static final AtomicLong killed = new AtomicLong();
+
+    private static volatile ScheduledExecutorService watchdog;
+
+    private ScenarioDeadline() {}
+
+    /**
+     * True when scenarios have a budget or hung sessions are watched for.
+     */
+    public static boolean isEnabled() {
+        return BUDGET_SECONDS > 0 || COMMAND_TIMEOUT_SECONDS > 0;
+    }
+
+    /**
+     * Listener to attach to tracked sessions.
+     */
+    static ScenarioDeadline listener() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the budget of the scenario running on this thread and puts its session under watch.
+     *
+     * @param scenarioName name used in logs and evidence
+     * @param driver       the scenario's session, quit by the watchdog if it hangs
+     */
+    public static void start(String scenarioName, WebDriver driver) {
+        if (!isEnabled() || driver == null) {
+            return;
+        }
+        Budget budget = new Budget(Thread.currentThread(), scenarioName, driver);
+        current.set(budget);
+        active.put(budget.thread, budget);
+        startWatchdog();
+    }
+
+    /**
+     * Returns the given wait timeout, cut to what is left of the current scenario's budget.
+     *
+     * @param timeoutSeconds the wait's own timeout
+     * @throws ExceededException when the budget is used up
+     */
+    public static Duration cap(long timeoutSeconds) {
+        Duration timeout = Duration.ofSeconds(timeoutSeconds);
+        Budget budget = current.get();
+        if (budget == null || budget.deadlineNanos == 0) {
+            return timeout;
+        }
+        long remaining = budget.deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            String reason = "scenario budget of " + BUDGET_SECONDS + "s used up";
+            budget.expire(reason, budget.describe(reason, false), false);
+            throw new ExceededException(reason + " (" + budget.scenarioName + ")");
+        }
+        return remaining < timeout.toNanos() ? Duration.ofNanos(remaining) : timeout;
+    }
+
+    /**
+     * True if the current scenario ran out of budget or its session was killed as hung.
+     */
+    public static boolean timedOut() {
+        Budget budget = current.get();
+        if (budget == null) {
+            return false;
+        }
+        if (budget.reason == null && budget.deadlineNanos != 0 && System.nanoTime() > budget.deadlineNanos) {
+            // a wait cut short by the budget timed out before the budget was checked again
+            String reason = "scenario budget of " + BUDGET_SECONDS + "s used up";
+            budget.expire(reason, budget.describe(reason, false), false);
+        }
+        return budget.reason != null;
+    }
+
+    /**
+     * True if the current scenario's session was killed by the watchdog; it cannot take
+     * screenshots any more.
+     */
+    public static boolean sessionKilled() {
+        Budget budget = current.get();
+        return budget != null && budget.killed;
+    }
+
+    /**
+     * Returns why the current scenario timed out, or null if it did not.
+     */
+    public static String reason() {
+        Budget budget = current.get();
+        return budget == null ? null : budget.reason;
+    }
+
+    /**
+     * Returns the evidence collected when the current scenario timed out, or null if it did not.
+     */
+    public static String evidence() {
+        Budget budget = current.get();
+        return budget == null ? null : budget.evidence;
+    }
+
+    /**
+     * Ends the watch of the current scenario. Call after the scenario.
+     */
+    public static void clear() {
+        Budget budget = current.get();
+        if (budget != null) {
+            active.remove(budget.thread, budget);
+            current.remove();
+        }
+    }
+
+    /**
+     * Returns a one-line summary of timed-out scenarios and killed sessions.
+     */
+    public static String stats() {
+        return "timed out scenarios=" + timedOut.get() + " killed sessions=" + killed.get()
+                + " (budget " + (BUDGET_SECONDS > 0 ? BUDGET_SECONDS + "s" : "off") + ", command timeout "
+                + (COMMAND_TIMEOUT_SECONDS > 0 ? COMMAND_TIMEOUT_SECONDS + "s" : "off") + ")";
+    }
+
+    @Override
+    public void beforeCommand(Object target, String command, Object[] args) {
+        Budget budget = current.get();
+        if (budget != null && budget.depth++ == 0) {
+            budget.command = command;
+            budget.commandStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterCommand(Object target, String command, Object[] args, Object result) {
+        endCall();
+    }
+
+    @Override
+    public void onCommandError(Object target, String command, Object[] args, RuntimeException e) {
+        endCall();
+    }
+
+    private static void endCall() {
+        Budget budget = current.get();
+        if (budget != null && budget.depth > 0 && --budget.depth == 0) {
+            budget.commandStartNanos = 0;
+        }
+    }
+
+    private static void startWatchdog() {
+        if (watchdog != null) {
+            return;
+        }
+        synchronized (ScenarioDeadline.class) {
+            if (watchdog == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "scenario-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleWithFixedDelay(ScenarioDeadline::check, 1, 1, TimeUnit.SECONDS);
+                watchdog = executor;
+            }
+        }
+    }
+
+    private static void check() {
+        long now = System.nanoTime();
+        for (Budget budget : active.values()) {
+            long commandStart = budget.commandStartNanos;
+            if (commandStart == 0 || budget.killed) {
+                continue;
+            }
+            long running = now - commandStart;
+            if (COMMAND_TIMEOUT_SECONDS > 0 && running > TimeUnit.SECONDS.toNanos(COMMAND_TIMEOUT_SECONDS)) {
+                kill(budget, "'" + budget.command + "' did not answer within " + COMMAND_TIMEOUT_SECONDS + "s");
+            } else if (budget.deadlineNanos != 0
+                    && now - budget.deadlineNanos > TimeUnit.SECONDS.toNanos(GRACE_SECONDS)) {
+                kill(budget, "scenario budget of " + BUDGET_SECONDS + "s used up while '" + budget.command
+                        + "' was running");
+            }
+        }
+    }
+
+    private static void kill(Budget budget, String reason) {
+        // describe before killing: the stack shows where the scenario is blocked
+        if (!budget.expire(reason, budget.describe(reason, true), true)) {
+            return;
+        }
+        killed.incrementAndGet();
+        RunLog.warn("ScenarioDeadline", "Killing the session of \"" + budget.scenarioName + "\": " + reason);
+        Thread.ofVirtual().name("session-reaper").start(() -> {
+            if (DriverPool.isEnabled()) {
+                DriverPool.abandon(budget.driver);
+                DriverPool.prewarm(1);
+            }
+            try {
+                budget.driver.quit();
+            } catch (Exception e) {
+                RunLog.warn("ScenarioDeadline", "Quitting the hung session failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Thrown by waits once the scenario's budget is used up.
+     */
+    public static final class ExceededException extends TimeoutException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Deadline and in-flight command of one scenario. Command fields are written by the scenario
+     * thread and read by the watchdog.
+     */
+    private static final class Budget {
+
+        private final Thread thread;
+        private final String scenarioName;
+        private final WebDriver driver;
+        private final long startNanos = System.nanoTime();
+        // 0 when scenarios have no budget
+        private final long deadlineNanos = BUDGET_SECONDS > 0 ? startNanos + TimeUnit.SECONDS.toNanos(BUDGET_SECONDS) : 0;
+        // scenario thread only; calls nest when a listener issues commands
+        private int depth;
+        private volatile String command;
+        private volatile long commandStartNanos;
+        private volatile String reason;
+        private volatile String evidence;
+        private volatile boolean killed;
+
+        private Budget(Thread thread, String scenarioName, WebDriver driver) {
+            this.thread = thread;
+            this.scenarioName = scenarioName;
+            this.driver = driver;
+        }
+
+        /**
+         * Records the first reason the scenario timed out; returns false if it already had one
+         * (unless the session is now being killed and was not before).
+         */
+        private synchronized boolean expire(String reason, String evidence, boolean kill) {
+            if (kill ? killed : this.reason != null) {
+                return false;
+            }
+            if (this.reason == null) {
+                timedOut.incrementAndGet();
+            }
+            this.reason = reason;
+            this.evidence = evidence;
+            killed |= kill;
+            return true;
+        }
+
+        private String describe(String reason, boolean withStack) {
+            long now = System.nanoTime();
+            StringBuilder text = new StringBuilder()
+                    .append("Scenario: ").append(scenarioName).append('\n')
+                    .append("Timed out: ").append(reason).append('\n')
+                    .append("Elapsed: ").append(TimeUnit.NANOSECONDS.toMillis(now - startNanos)).append(" ms");
+            if (deadlineNanos != 0) {
+                text.append(" (budget ").append(BUDGET_SECONDS).append(" s)");
+            }
+            text.append('\n');
+            long commandStart = commandStartNanos;
+            if (commandStart != 0) {
+                text.append("Command in flight: ").append(command).append(" for ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(now - commandStart)).append(" ms\n");
+            }
+            if (withStack) {
+                text.append("Scenario thread ").append(thread.getName()).append(":\n");
+                for (StackTraceElement frame : thread.getStackTrace()) {
+                    text.append("    at ").append(frame).append('\n');
+                }
+            }
+            return text.toString();
+        }
+    }
+}
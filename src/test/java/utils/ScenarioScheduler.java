@@ -0,0 +1,283 @@
+package utils;
+
+import io.cucumber.testng.PickleWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ScenarioScheduler orders the runners' scenario rows longest-processing-time first, using
+ * durations recorded by earlier runs.
+ * <p>
+ * TestNG feeds data-provider rows to its worker pool through a single shared queue, so a worker
+ * that finishes early simply takes the next queued scenario. With the longest scenarios started
+ * first, the short ones fill the gaps at the end and wall-clock time approaches total work
+ * divided by the thread count. Scenarios without history are estimated at the average known
+ * duration; with no history at all the feature-file order is kept.
+ * <p>
+ * Durations are recorded per scenario (feature URI and line) from {@code hooks.Hooks}, smoothed
+ * with the previous value, and merged into the history file at suite end under a file lock.
+ * A shard JVM never writes the history it was partitioned from: it saves its measurements to
+ * scheduler.durations.save when set (the launcher merges them once all shards are done) and
+ * otherwise not at all.
+ * <p>
+ * Sharding: with shard.count > 1 the (tag-filtered) scenario set is split into balanced shards and
+ * only the rows of shard.index are returned. Scenarios are assigned greedily, longest first, to
+ * the shard with the least expected work; ties are broken by an order derived from shard.seed,
+ * so every shard JVM computes the same assignment from the same history and seed. The launcher
+ * therefore hands all shards one read-only snapshot of the history; pass the same snapshot as
+ * scheduler.durations.file to re-run a single shard. Without history all scenarios weigh the same
+ * and shards are balanced by count.
+ * See {@code runners.ShardLauncher} to run all shards and merge their reports.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - scheduler.enabled: true | false (default: true)
+ * - scheduler.durations.file: history file (default: .cache/scenario-durations.properties)
+ * - scheduler.durations.save: file the recorded durations are merged into (default: the history
+ *   file; shards only save when it is set)
+ * - shard.count: number of shards (default: 1, no sharding)
+ * - shard.index: shard to run, 0 .. shard.count-1 (default: 0)
+ * - shard.seed: tie-break seed for the shard assignment (default: 0)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class ScenarioScheduler {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("scheduler.enabled", "true"));
+
+    private static final Path DURATIONS_FILE = Paths.get(
+            System.getProperty("scheduler.durations.file", ".cache/scenario-durations.properties"));
+
+    // null: shards do not save unless told where to
+    private static final String SAVE_FILE = System.getProperty("scheduler.durations.save");
+
+    // Weight of the latest measurement against the recorded history
+    private static final double SMOOTHING = 0.5;
+
+    private static final int SHARD_COUNT = Integer.getInteger("shard.count", 1);
+    private static final int SHARD_INDEX = Integer.getInteger("shard.index", 0);
+    private static final long SHARD_SEED = Long.getLong("shard.seed", 0L);
+
+    private static final URI WORKING_DIR = Paths.get("").toAbsolutePath().toUri();
+
+    private static final Map<String, Long> durations = loadDurations(DURATIONS_FILE);
+    private static final Set<String> recorded = ConcurrentHashMap.newKeySet();
+
+    private ScenarioScheduler() {}
+
+    /**
+     * Reorders data-provider rows (PickleWrapper, FeatureWrapper) longest expected duration first
+     * and, when sharding, keeps only the rows assigned to this shard.
+     * Returns the rows unchanged when scheduling is disabled, or when there is no history and
+     * no sharding.
+     */
+    public static Object[][] schedule(Object[][] scenarios) {
+        if (SHARD_COUNT > 1) {
+            return shard(scenarios);
+        }
+        if (!ENABLED || durations.isEmpty() || scenarios.length < 2) {
+            return scenarios;
+        }
+        long fallback = averageDuration();
+        Object[][] ordered = scenarios.clone();
+        // stable sort: scenarios with equal estimates keep feature-file order
+        Arrays.sort(ordered, Comparator.comparingLong(
+                (Object[] row) -> durations.getOrDefault(key((PickleWrapper) row[0]), fallback)).reversed());
+        RunLog.event("ScenarioScheduler", "Ordered " + ordered.length
+                + " scenarios longest first using " + DURATIONS_FILE);
+        return ordered;
+    }
+
+    /**
+     * Splits the rows into {@link #SHARD_COUNT} balanced shards and returns this shard's rows,
+     * longest first.
+     */
+    private static Object[][] shard(Object[][] scenarios) {
+        if (SHARD_INDEX < 0 || SHARD_INDEX >= SHARD_COUNT) {
+            throw new IllegalStateException("shard.index must be between 0 and " + (SHARD_COUNT - 1)
+                    + " but was " + SHARD_INDEX);
+        }
+        long fallback = Math.max(1, averageDuration());
+        List<Object[]> rows = new ArrayList<>(Arrays.asList(scenarios));
+        Map<Object[], String> keys = new IdentityHashMap<>();
+        Map<Object[], Long> estimates = new IdentityHashMap<>();
+        for (Object[] row : rows) {
+            String key = key((PickleWrapper) row[0]);
+            keys.put(row, key);
+            estimates.put(row, ENABLED ? durations.getOrDefault(key, fallback) : fallback);
+        }
+        rows.sort(Comparator.comparingLong((Object[] row) -> estimates.get(row)).reversed()
+                .thenComparingLong(row -> tieBreak(keys.get(row)))
+                .thenComparing(row -> keys.get(row)));
+
+        long[] load = new long[SHARD_COUNT];
+        List<Object[]> assigned = new ArrayList<>();
+        for (Object[] row : rows) {
+            int target = 0;
+            for (int shard = 1; shard < SHARD_COUNT; shard++) {
+                if (load[shard] < load[target]) {
+                    target = shard;
+                }
+            }
+            load[target] += estimates.get(row);
+            if (target == SHARD_INDEX) {
+                assigned.add(row);
+            }
+        }
+        RunLog.summary("ScenarioScheduler", "Shard " + SHARD_INDEX + "/" + SHARD_COUNT + " (seed "
+                + SHARD_SEED + "): " + assigned.size() + " of " + scenarios.length
+                + " scenarios, expected " + load[SHARD_INDEX] + " ms");
+        return assigned.toArray(new Object[0][]);
+    }
+
+    private static long tieBreak(String key) {
+        return new SplittableRandom(SHARD_SEED ^ key.hashCode()).nextLong();
+    }
+
+    private static long averageDuration() {
+        return (long) durations.values().stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+
+    /**
+     * Records how long a scenario took.
+     *
+     * @param uri        feature file URI of the scenario
+     * @param line       scenario line (example row line for outlines)
+     * @param durationMs wall-clock duration in milliseconds
+     */
+    public static void record(URI uri, int line, long durationMs) {
+        if (!ENABLED || durationMs < 0) {
+            return;
+        }
+        String key = key(uri, line);
+        durations.merge(key, durationMs,
+                (previous, latest) -> Math.round(previous * (1 - SMOOTHING) + latest * SMOOTHING));
+        recorded.add(key);
+    }
+
+    /**
+     * Merges the durations recorded by this JVM into scheduler.durations.save (default: the
+     * history file), if anything was recorded. A shard without scheduler.durations.save keeps its
+     * measurements to itself, so the history stays the one all shards were partitioned from.
+     */
+    public static void saveDurations() {
+        if (!ENABLED || recorded.isEmpty() || (SHARD_COUNT > 1 && SAVE_FILE == null)) {
+            return;
+        }
+        Map<String, Long> measured = new HashMap<>();
+        for (String key : recorded) {
+            measured.put(key, durations.get(key));
+        }
+        if (merge(SAVE_FILE == null ? DURATIONS_FILE : Paths.get(SAVE_FILE), measured)) {
+            recorded.clear();
+        }
+    }
+
+    /**
+     * Copies the history file to the given file, which every shard JVM then reads as its
+     * scheduler.durations.file. Without history the snapshot is not created and shards balance
+     * by scenario count.
+     *
+     * @param snapshot file to write; an existing one is replaced
+     */
+    public static void snapshotDurations(Path snapshot) throws IOException {
+        Files.deleteIfExists(snapshot);
+        Map<String, Long> history = loadDurations(DURATIONS_FILE);
+        if (!history.isEmpty()) {
+            merge(snapshot, history);
+        }
+    }
+
+    /**
+     * Merges duration files saved by shard JVMs into the history file. Called by the shard
+     * launcher once every shard has finished.
+     *
+     * @param files files written through scheduler.durations.save; missing ones are skipped
+     */
+    public static void mergeDurations(List<Path> files) {
+        Map<String, Long> measured = new HashMap<>();
+        for (Path file : files) {
+            measured.putAll(loadDurations(file));
+        }
+        if (!measured.isEmpty()) {
+            merge(DURATIONS_FILE, measured);
+        }
+    }
+
+    /**
+     * Writes the values into the file, keeping its other entries. The file is re-read under a
+     * lock so concurrent JVMs do not overwrite each other's results.
+     *
+     * @return true if the file was written
+     */
+    private static boolean merge(Path file, Map<String, Long> values) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path lockFile = Paths.get(file + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Long> merged = loadDurations(file);
+                merged.putAll(values);
+                // Properties.store writes keys in sorted order (Java 18+), so the file diffs cleanly
+                Properties properties = new Properties();
+                merged.forEach((key, value) -> properties.setProperty(key, String.valueOf(value)));
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    properties.store(out, "Scenario durations in ms, maintained by utils.ScenarioScheduler");
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            RunLog.warn("ScenarioScheduler", "Could not write " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String key(PickleWrapper pickleWrapper) {
+        return key(pickleWrapper.getPickle().getUri(), pickleWrapper.getPickle().getLine());
+    }
+
+    private static String key(URI uri, int line) {
+        // relative to the project so the history survives a move of the checkout
+        return WORKING_DIR.relativize(uri) + ":" + line;
+    }
+
+    private static Map<String, Long> loadDurations(Path file) {
+        Map<String, Long> loaded = new ConcurrentHashMap<>();
+        if (!ENABLED || !Files.isRegularFile(file)) {
+            return loaded;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            for (String key : properties.stringPropertyNames()) {
+                loaded.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            RunLog.warn("ScenarioScheduler", "Ignoring unreadable " + file + ": " + e.getMessage());
+            loaded.clear();
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,177 @@
+package utils;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StepLatencyRecorder is a Cucumber plugin that records the duration of every step and scenario
+ * into HDR histograms, per load phase (ramp-up, steady state). Used by {@link runners.LoadRunner}.
+ * <p>
+ * Steps are keyed by their step definition pattern, so parameterised steps from different
+ * examples share a histogram. Recording is lock-free ({@link Recorder}). Steps and scenarios count
+ * towards the phase they started in, so the ones still running when the steady state ends (each
+ * user's last scenario) are recorded when they finish; those that started before
+ * {@link #startPhases(long, long)} or after the end of the steady state are ignored.
+ * <p>
+ * {@link #report(Path)} writes one {@code .hgrm} percentile distribution per step and phase
+ * (values in milliseconds, loadable by the HdrHistogram plotter), a {@code summary.json} and a
+ * console table.
+ *
+ * @author NiteshJainQaTestology
+ */
+public class StepLatencyRecorder implements ConcurrentEventListener {
+
+    static final String RAMP_UP = "ramp-up";
+    static final String STEADY = "steady";
+
+    private static final String SCENARIO_KEY = "(scenario)";
+
+    // microseconds, up to one hour, 3 significant digits
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private static final Map<String, Map<String, Recorder>> recorders = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    private static volatile long rampUpStartNanos = Long.MAX_VALUE;
+    private static volatile long steadyStartNanos;
+    private static volatile long endNanos;
+
+    /**
+     * Sets the phase boundaries; nothing is recorded before this is called.
+     *
+     * @param rampUpMillis length of the ramp-up phase, starting now
+     * @param steadyMillis length of the steady-state phase that follows
+     */
+    public static void startPhases(long rampUpMillis, long steadyMillis) {
+        long now = System.nanoTime();
+        steadyStartNanos = now + TimeUnit.MILLISECONDS.toNanos(rampUpMillis);
+        endNanos = steadyStartNanos + TimeUnit.MILLISECONDS.toNanos(steadyMillis);
+        rampUpStartNanos = now;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onCaseFinished);
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        // steps that never ran (skipped after a failure, undefined) carry no latency
+        Status status = event.getResult().getStatus();
+        if (event.getTestStep() instanceof PickleStepTestStep && (status == Status.PASSED || status == Status.FAILED)) {
+            PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+            record(step.getStep().getKeyword().trim() + " " + step.getPattern(),
+                    event.getResult().getDuration().toNanos(), status);
+        }
+    }
+
+    private void onCaseFinished(TestCaseFinished event) {
+        record(SCENARIO_KEY, event.getResult().getDuration().toNanos(), event.getResult().getStatus());
+    }
+
+    private static void record(String key, long durationNanos, Status status) {
+        String phase = phase(System.nanoTime() - durationNanos);
+        if (phase == null) {
+            return;
+        }
+        recorders.computeIfAbsent(phase, p -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> new Recorder(HIGHEST_MICROS, 3))
+                .recordValue(Math.min(HIGHEST_MICROS, Math.max(0, durationNanos / 1_000)));
+        if (status != Status.PASSED) {
+            failures.computeIfAbsent(phase + "|" + key, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private static String phase(long nanos) {
+        if (nanos < rampUpStartNanos || nanos > endNanos) {
+            return null;
+        }
+        return nanos < steadyStartNanos ? RAMP_UP : STEADY;
+    }
+
+    /**
+     * Writes the histograms to the given directory and adds the steady-state table to the
+     * {@link RunLog} summary.
+     */
+    public static void report(Path dir) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("unit", "milliseconds");
+        for (String phase : List.of(RAMP_UP, STEADY)) {
+            Map<String, Recorder> byStep = recorders.getOrDefault(phase, Map.of());
+            Path phaseDir = dir.resolve(phase);
+            Files.createDirectories(phaseDir);
+
+            Map<String, Object> steps = new LinkedHashMap<>();
+            List<String[]> rows = new ArrayList<>();
+            for (Map.Entry<String, Recorder> entry : byStep.entrySet()) {
+                Histogram histogram = entry.getValue().getIntervalHistogram();
+                long failed = failures.getOrDefault(phase + "|" + entry.getKey(), new AtomicLong()).get();
+                steps.put(entry.getKey(), stats(histogram, failed));
+                rows.add(new String[] {entry.getKey(), String.valueOf(histogram.getTotalCount()), String.valueOf(failed),
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue())});
+                try (PrintStream out = new PrintStream(
+                        Files.newOutputStream(phaseDir.resolve(sanitize(entry.getKey()) + ".hgrm")),
+                        false, StandardCharsets.UTF_8)) {
+                    histogram.outputPercentileDistribution(out, 1_000.0);
+                }
+            }
+            json.put(phase, steps);
+            if (STEADY.equals(phase)) {
+                printTable(rows);
+            }
+        }
+        Files.writeString(dir.resolve("summary.json"), new Json().toJson(json));
+        RunLog.event("LoadRunner", "Latency histograms written to " + dir);
+    }
+
+    private static Map<String, Object> stats(Histogram histogram, long failed) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.getTotalCount());
+        stats.put("failed", failed);
+        stats.put("mean", histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1_000);
+        stats.put("p50", histogram.getValueAtPercentile(50) / 1_000.0);
+        stats.put("p90", histogram.getValueAtPercentile(90) / 1_000.0);
+        stats.put("p99", histogram.getValueAtPercentile(99) / 1_000.0);
+        stats.put("p999", histogram.getValueAtPercentile(99.9) / 1_000.0);
+        stats.put("max", histogram.getMaxValue() / 1_000.0);
+        return stats;
+    }
+
+    private static void printTable(List<String[]> rows) {
+        rows.sort((a, b) -> a[0].compareTo(b[0]));
+        RunLog.summary("LoadRunner", String.format("%-70s %7s %6s %10s %10s %10s %10s",
+                "Steady state", "Count", "Failed", "p50 ms", "p90 ms", "p99 ms", "Max ms"));
+        for (String[] row : rows) {
+            RunLog.summary("LoadRunner", String.format("%-70.70s %7s %6s %10s %10s %10s %10s", (Object[]) row));
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1_000.0);
+    }
+
+    private static String sanitize(String text) {
+        return text.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
+    }
+}
@@ -0,0 +1,536 @@
+package utils;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * TrackedDriver is a thin, hand-written delegate around a session that tells its
+ * {@link Listener}s about every WebDriver command (NavigationTracker, CommandMetrics,
+ * ScenarioDeadline, a context lease).
+ * <p>
+ * Selenium's {@code EventFiringDecorator} builds a proxy for every element and sub-object it hands
+ * out, which costs milliseconds per command; here a command costs the listener calls plus, for
+ * commands that return elements, one small wrapper per element. Commands on elements, on
+ * {@link Navigation} and on {@link TargetLocator} are reported; {@link Options} (cookies,
+ * timeouts, window size) is handed out unwrapped, since none of the listeners needs it.
+ * <p>
+ * Elements are unwrapped again when passed back as script arguments or frame targets.
+ * <p>
+ * DevTools and BiDi are handed through from the session ({@link HasDevTools}, {@link HasBiDi});
+ * they are empty for a session that has neither. Protocol commands are not reported to the
+ * listeners. Other driver-specific interfaces (e.g. ChromiumDriver's executeCdpCommand) are only
+ * reachable through {@link #getWrappedDriver()}.
+ *
+ * @author NiteshJainQaTestology
+ */
+final class TrackedDriver implements WebDriver, JavascriptExecutor, TakesScreenshot, HasCapabilities,
+        Interactive, WrapsDriver, HasDevTools, HasBiDi {
+
+    /**
+     * Receives the commands of tracked sessions. The target is the unwrapped driver, element,
+     * navigation or target locator the command runs on.
+     */
+    interface Listener {
+
+        default void beforeCommand(Object target, String command, Object[] args) {
+        }
+
+        default void afterCommand(Object target, String command, Object[] args, Object result) {
+        }
+
+        default void onCommandError(Object target, String command, Object[] args, RuntimeException e) {
+        }
+    }
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final WebDriver driver;
+    private final Listener[] listeners;
+
+    TrackedDriver(WebDriver driver, Listener[] listeners) {
+        this.driver = driver;
+        this.listeners = listeners;
+    }
+
+    private <T> T call(Object target, String command, Object[] args, Supplier<T> action) {
+        for (Listener listener : listeners) {
+            listener.beforeCommand(target, command, args);
+        }
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            for (Listener listener : listeners) {
+                listener.onCommandError(target, command, args, e);
+            }
+            throw e;
+        }
+        for (Listener listener : listeners) {
+            listener.afterCommand(target, command, args, result);
+        }
+        return result;
+    }
+
+    private void run(Object target, String command, Object[] args, Runnable action) {
+        call(target, command, args, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private WebElement wrap(WebElement element) {
+        return element == null || element instanceof TrackedElement ? element : new TrackedElement(element);
+    }
+
+    private List<WebElement> wrap(List<WebElement> elements) {
+        List<WebElement> wrapped = new ArrayList<>(elements.size());
+        for (WebElement element : elements) {
+            wrapped.add(wrap(element));
+        }
+        return wrapped;
+    }
+
+    /**
+     * Wraps the elements a script returned, directly or in a list.
+     */
+    private Object wrapResult(Object result) {
+        if (result instanceof WebElement) {
+            return wrap((WebElement) result);
+        }
+        if (result instanceof List) {
+            List<?> values = (List<?>) result;
+            for (Object value : values) {
+                if (value instanceof WebElement) {
+                    List<Object> wrapped = new ArrayList<>(values.size());
+                    for (Object each : values) {
+                        wrapped.add(each instanceof WebElement ? wrap((WebElement) each) : each);
+                    }
+                    return wrapped;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Object unwrap(Object value) {
+        if (value instanceof TrackedElement) {
+            return ((TrackedElement) value).element;
+        }
+        if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            for (Object each : values) {
+                if (each instanceof TrackedElement) {
+                    List<Object> unwrapped = new ArrayList<>(values.size());
+                    for (Object element : values) {
+                        unwrapped.add(unwrap(element));
+                    }
+                    return unwrapped;
+                }
+            }
+        }
+        return value;
+    }
+
+    private static Object[] unwrapArgs(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Object[] unwrapped = args;
+        for (int i = 0; i < args.length; i++) {
+            Object value = unwrap(args[i]);
+            if (value != args[i]) {
+                if (unwrapped == args) {
+                    unwrapped = args.clone();
+                }
+                unwrapped[i] = value;
+            }
+        }
+        return unwrapped;
+    }
+
+    @Override
+    public WebDriver getWrappedDriver() {
+        return driver;
+    }
+
+    @Override
+    public Optional<DevTools> maybeGetDevTools() {
+        return driver instanceof HasDevTools ? ((HasDevTools) driver).maybeGetDevTools() : Optional.empty();
+    }
+
+    @Override
+    public Optional<BiDi> maybeGetBiDi() {
+        return driver instanceof HasBiDi ? ((HasBiDi) driver).maybeGetBiDi() : Optional.empty();
+    }
+
+    @Override
+    public void get(String url) {
+        run(driver, "get", new Object[] {url}, () -> driver.get(url));
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return call(driver, "getCurrentUrl", NO_ARGS, driver::getCurrentUrl);
+    }
+
+    @Override
+    public String getTitle() {
+        return call(driver, "getTitle", NO_ARGS, driver::getTitle);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return wrap(call(driver, "findElements", new Object[] {by}, () -> driver.findElements(by)));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return wrap(call(driver, "findElement", new Object[] {by}, () -> driver.findElement(by)));
+    }
+
+    @Override
+    public String getPageSource() {
+        return call(driver, "getPageSource", NO_ARGS, driver::getPageSource);
+    }
+
+    @Override
+    public void close() {
+        run(driver, "close", NO_ARGS, driver::close);
+    }
+
+    @Override
+    public void quit() {
+        run(driver, "quit", NO_ARGS, driver::quit);
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return call(driver, "getWindowHandles", NO_ARGS, driver::getWindowHandles);
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return call(driver, "getWindowHandle", NO_ARGS, driver::getWindowHandle);
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return new TrackedTargetLocator(driver.switchTo());
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new TrackedNavigation(driver.navigate());
+    }
+
+    @Override
+    public Options manage() {
+        return driver.manage();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        Object[] unwrapped = unwrapArgs(args);
+        return wrapResult(call(driver, "executeScript", new Object[] {script, args},
+                () -> ((JavascriptExecutor) driver).executeScript(script, unwrapped)));
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        Object[] unwrapped = unwrapArgs(args);
+        return wrapResult(call(driver, "executeAsyncScript", new Object[] {script, args},
+                () -> ((JavascriptExecutor) driver).executeAsyncScript(script, unwrapped)));
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return call(driver, "getScreenshotAs", new Object[] {target},
+                () -> ((TakesScreenshot) driver).getScreenshotAs(target));
+    }
+
+    @Override
+    public Capabilities getCapabilities() {
+        return driver instanceof HasCapabilities
+                ? ((HasCapabilities) driver).getCapabilities() : new ImmutableCapabilities();
+    }
+
+    @Override
+    public void perform(Collection<Sequence> actions) {
+        run(driver, "perform", new Object[] {actions}, () -> ((Interactive) driver).perform(actions));
+    }
+
+    @Override
+    public void resetInputState() {
+        run(driver, "resetInputState", NO_ARGS, () -> ((Interactive) driver).resetInputState());
+    }
+
+    @Override
+    public String toString() {
+        return driver.toString();
+    }
+
+    private final class TrackedNavigation implements Navigation {
+
+        private final Navigation navigation;
+
+        private TrackedNavigation(Navigation navigation) {
+            this.navigation = navigation;
+        }
+
+        @Override
+        public void back() {
+            run(navigation, "back", NO_ARGS, navigation::back);
+        }
+
+        @Override
+        public void forward() {
+            run(navigation, "forward", NO_ARGS, navigation::forward);
+        }
+
+        @Override
+        public void to(String url) {
+            run(navigation, "to", new Object[] {url}, () -> navigation.to(url));
+        }
+
+        @Override
+        public void to(URL url) {
+            run(navigation, "to", new Object[] {url}, () -> navigation.to(url));
+        }
+
+        @Override
+        public void refresh() {
+            run(navigation, "refresh", NO_ARGS, navigation::refresh);
+        }
+    }
+
+    private final class TrackedTargetLocator implements TargetLocator {
+
+        private final TargetLocator locator;
+
+        private TrackedTargetLocator(TargetLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public WebDriver frame(int index) {
+            run(locator, "frame", new Object[] {index}, () -> locator.frame(index));
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            run(locator, "frame", new Object[] {nameOrId}, () -> locator.frame(nameOrId));
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            WebElement element = (WebElement) unwrap(frameElement);
+            run(locator, "frame", new Object[] {element}, () -> locator.frame(element));
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            run(locator, "parentFrame", NO_ARGS, locator::parentFrame);
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            run(locator, "window", new Object[] {nameOrHandle}, () -> locator.window(nameOrHandle));
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            run(locator, "newWindow", new Object[] {typeHint}, () -> locator.newWindow(typeHint));
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            run(locator, "defaultContent", NO_ARGS, locator::defaultContent);
+            return TrackedDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            return wrap(call(locator, "activeElement", NO_ARGS, locator::activeElement));
+        }
+
+        @Override
+        public Alert alert() {
+            return call(locator, "alert", NO_ARGS, locator::alert);
+        }
+    }
+
+    private final class TrackedElement implements WebElement, WrapsElement {
+
+        private final WebElement element;
+
+        private TrackedElement(WebElement element) {
+            this.element = element;
+        }
+
+        @Override
+        public WebElement getWrappedElement() {
+            return element;
+        }
+
+        @Override
+        public void click() {
+            run(element, "click", NO_ARGS, element::click);
+        }
+
+        @Override
+        public void submit() {
+            run(element, "submit", NO_ARGS, element::submit);
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+            run(element, "sendKeys", new Object[] {keysToSend}, () -> element.sendKeys(keysToSend));
+        }
+
+        @Override
+        public void clear() {
+            run(element, "clear", NO_ARGS, element::clear);
+        }
+
+        @Override
+        public String getTagName() {
+            return call(element, "getTagName", NO_ARGS, element::getTagName);
+        }
+
+        @Override
+        public String getDomProperty(String name) {
+            return call(element, "getDomProperty", new Object[] {name}, () -> element.getDomProperty(name));
+        }
+
+        @Override
+        public String getDomAttribute(String name) {
+            return call(element, "getDomAttribute", new Object[] {name}, () -> element.getDomAttribute(name));
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            return call(element, "getAttribute", new Object[] {name}, () -> element.getAttribute(name));
+        }
+
+        @Override
+        public String getAriaRole() {
+            return call(element, "getAriaRole", NO_ARGS, element::getAriaRole);
+        }
+
+        @Override
+        public String getAccessibleName() {
+            return call(element, "getAccessibleName", NO_ARGS, element::getAccessibleName);
+        }
+
+        @Override
+        public boolean isSelected() {
+            return call(element, "isSelected", NO_ARGS, element::isSelected);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return call(element, "isEnabled", NO_ARGS, element::isEnabled);
+        }
+
+        @Override
+        public String getText() {
+            return call(element, "getText", NO_ARGS, element::getText);
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return wrap(call(element, "findElements", new Object[] {by}, () -> element.findElements(by)));
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return wrap(call(element, "findElement", new Object[] {by}, () -> element.findElement(by)));
+        }
+
+        @Override
+        public SearchContext getShadowRoot() {
+            return call(element, "getShadowRoot", NO_ARGS, element::getShadowRoot);
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            return call(element, "isDisplayed", NO_ARGS, element::isDisplayed);
+        }
+
+        @Override
+        public Point getLocation() {
+            return call(element, "getLocation", NO_ARGS, element::getLocation);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return call(element, "getSize", NO_ARGS, element::getSize);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return call(element, "getRect", NO_ARGS, element::getRect);
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return call(element, "getCssValue", new Object[] {propertyName}, () -> element.getCssValue(propertyName));
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            return call(element, "getScreenshotAs", new Object[] {target}, () -> element.getScreenshotAs(target));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof WrapsElement
+                    ? element.equals(((WrapsElement) other).getWrappedElement()) : element.equals(other);
+        }
+
+        @Override
+        public int hashCode() {
+            return element.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return element.toString();
+        }
+    }
+}
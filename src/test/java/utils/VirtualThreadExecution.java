@@ -0,0 +1,131 @@
+package utils;
+
+import io.cucumber.testng.PickleWrapper;
+import org.testng.SkipException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * VirtualThreadExecution runs scenarios on Java 21 virtual threads instead of TestNG's
+ * platform-thread pool.
+ * <p>
+ * Every scenario gets its own virtual thread, so thread-local state ({@link DriverFactory},
+ * {@link ScenarioContext}, ...) is scoped to exactly one scenario and disappears with its thread.
+ * Browsers are limited separately by {@link DriverPool} (driver.pool.size): a scenario waiting
+ * for a browser parks its virtual thread without holding a platform thread, while other
+ * scenarios' report writing, screenshot handling and glue set-up carry on.
+ * <p>
+ * The number of scenarios in flight (started, possibly waiting for a browser) is bounded so
+ * scenarios still start in {@link ScenarioScheduler} order; by default twice the pool size, so the
+ * next scenario is ready as soon as a browser is released.
+ * <p>
+ * Configuration is controlled via system properties:
+ * - execution.mode: platform | virtual (default: platform)
+ * - execution.virtual.inflight: maximum scenarios in flight (default: 2 x driver.pool.size)
+ *
+ * @author NiteshJainQaTestology
+ */
+public final class VirtualThreadExecution {
+
+    private static final boolean ENABLED =
+            "virtual".equalsIgnoreCase(System.getProperty("execution.mode", "platform"));
+
+    /**
+     * Body run for one data-provider row; throws whatever the scenario threw.
+     */
+    @FunctionalInterface
+    public interface ScenarioTask {
+        void run(Object[] row) throws Throwable;
+    }
+
+    /**
+     * The scenario rows of one runner, passed to its virtual-thread test as a single parameter.
+     */
+    public static final class Batch {
+        private final List<Object[]> rows;
+
+        public Batch(List<Object[]> rows) {
+            this.rows = List.copyOf(rows);
+        }
+
+        public List<Object[]> rows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return rows.size() + " scenarios";
+        }
+    }
+
+    private VirtualThreadExecution() {}
+
+    /**
+     * Returns true if runners should execute scenarios on virtual threads.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Runs each row on its own virtual thread, in order, and waits for all of them.
+     *
+     * @throws AssertionError summarizing the failed scenarios (first failure as cause, the rest suppressed)
+     */
+    public static void runAll(Batch batch, ScenarioTask task) throws InterruptedException {
+        List<Object[]> rows = batch.rows();
+        if (!DriverPool.isEnabled()) {
+            // without the pool nothing would bound the number of browsers
+            throw new IllegalStateException("execution.mode=virtual requires driver.pool.enabled=true");
+        }
+        int inflight = Integer.getInteger("execution.virtual.inflight", 2 * DriverPool.maxSize());
+        Semaphore slots = new Semaphore(Math.max(1, inflight));
+        List<String> failedScenarios = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        ReentrantLock failuresLock = new ReentrantLock();
+
+        AtomicInteger skipped = new AtomicInteger();
+        ThreadFactory factory = Thread.ofVirtual().name("scenario-", 1).factory();
+        // closing the executor waits for every scenario to finish
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(factory)) {
+            for (Object[] row : rows) {
+                slots.acquire();
+                executor.submit(() -> {
+                    try {
+                        task.run(row);
+                    } catch (SkipException e) {
+                        // pending/undefined steps; already reported as skipped by Cucumber
+                        skipped.incrementAndGet();
+                    } catch (Throwable e) {
+                        failuresLock.lock();
+                        try {
+                            failedScenarios.add(((PickleWrapper) row[0]).getPickle().getName());
+                            failures.add(e);
+                        } finally {
+                            failuresLock.unlock();
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        }
+        RunLog.summary("VirtualThreadExecution", "Ran " + rows.size() + " scenarios on virtual threads ("
+                + inflight + " in flight, " + DriverPool.maxSize() + " browsers): "
+                + failures.size() + " failed, " + skipped.get() + " skipped");
+
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError(failures.size() + " of " + rows.size()
+                    + " scenarios failed: " + failedScenarios, failures.get(0));
+            failures.stream().skip(1).forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+}
@@ -10,15 +10,31 @@ import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * WaitUtils provides consistent explicit wait helpers that wrap Selenium's
  * {@link WebDriverWait}, {@link FluentWait}, and expected conditions.
  * <p>
+ * Element waits (visible/clickable/invisible) are first resolved in-page by {@link DomWaits},
+ * which returns as soon as the DOM matches instead of polling; the polling
+ * {@link WebDriverWait} is the fallback when the in-page engine cannot be used.
+ * <p>
+ * Page-load waits are skipped when {@link NavigationTracker} shows that readiness was already
+ * confirmed for the current document (no navigation-capable command since the last wait).
+ * Performed and skipped waits are counted, see {@link #pageLoadStats()}.
+ * <p>
+ * Timeouts are cut to what is left of the scenario's budget ({@link ScenarioDeadline}); with the
+ * budget used up, waits fail immediately. When the in-page wait gives up part-way (a navigation
+ * unloaded the page), the polling fallback only gets the time that is left of the same timeout.
+ * <p>
  * Defaults can be controlled via system properties:
  * - wait.timeout.seconds (default 10)
  * - wait.poll.millis (default 200)
+ * - wait.engine: observer | polling (default observer)
  *
  * @author NiteshJainQaTestology
  */
@@ -30,6 +46,15 @@ public final class WaitUtils {
     private static final long DEFAULT_POLL_MILLIS =
             Long.parseLong(System.getProperty("wait.poll.millis", "200"));
 
+    private static final String READY_STATE_SCRIPT = "return document.readyState";
+
+    private static final AtomicLong pageLoadWaitsPerformed = new AtomicLong();
+    private static final AtomicLong pageLoadWaitsSkipped = new AtomicLong();
+
+    static {
+        NavigationTracker.registerReadOnlyScript(READY_STATE_SCRIPT);
+    }
+
     private WaitUtils() {}
 
     /**
@@ -41,22 +66,41 @@ public final class WaitUtils {
 
     /**
      * Waits for the page readyState to be "complete".
+     * Returns immediately if readiness was already confirmed and no navigation happened since.
      *
      * @param timeoutSeconds maximum seconds to wait
      */
     public static void waitForPageLoad(WebDriver driver, long timeoutSeconds) {
-        new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds))
+        NavigationTracker tracker = NavigationTracker.of(driver);
+        long epoch = tracker == null ? -1 : tracker.epoch();
+        if (tracker != null && tracker.isReady(epoch)) {
+            pageLoadWaitsSkipped.incrementAndGet();
+            return;
+        }
+        pageLoadWaitsPerformed.incrementAndGet();
+        new WebDriverWait(driver, ScenarioDeadline.cap(timeoutSeconds))
                 .until(new ExpectedCondition<Boolean>() {
                     @Override
                     public Boolean apply(WebDriver d) {
                         try {
-                            String state = (String) ((JavascriptExecutor) d).executeScript("return document.readyState");
+                            String state = (String) ((JavascriptExecutor) d).executeScript(READY_STATE_SCRIPT);
                             return "complete".equals(state);
                         } catch (Exception ignored) {
                             return false;
                         }
                     }
                 });
+        if (tracker != null) {
+            tracker.markReady(epoch);
+        }
+    }
+
+    /**
+     * Returns a one-line summary of performed vs. skipped page-load waits.
+     */
+    public static String pageLoadStats() {
+        return "pageLoadWaits performed=" + pageLoadWaitsPerformed.get()
+                + " skipped=" + pageLoadWaitsSkipped.get();
     }
 
     /**
@@ -73,10 +117,59 @@ public final class WaitUtils {
      * @return visible {@link WebElement}
      */
     public static WebElement waitForVisible(WebDriver driver, By locator, long timeoutSeconds) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds))
+        Duration timeout = ScenarioDeadline.cap(timeoutSeconds);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<WebElement> found = DomWaits.await(driver, List.of(locator), DomWaits.VISIBLE, timeout);
+        if (found != null) {
+            return found.get(0);
+        }
+        return new WebDriverWait(driver, remaining(deadline))
                 .until(ExpectedConditions.visibilityOfElementLocated(locator));
     }
 
+    /**
+     * Waits until every located element is visible, as one condition, using default timeout.
+     */
+    public static List<WebElement> waitForAllVisible(WebDriver driver, List<By> locators) {
+        return waitForAllVisible(driver, locators, DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Waits until every located element is visible, as one condition.
+     * In-page this is a single round trip for all locators, instead of one wait per element.
+     *
+     * @param timeoutSeconds maximum seconds to wait
+     * @return visible {@link WebElement}s in locator order
+     */
+    public static List<WebElement> waitForAllVisible(WebDriver driver, List<By> locators, long timeoutSeconds) {
+        Duration timeout = ScenarioDeadline.cap(timeoutSeconds);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<WebElement> found = DomWaits.await(driver, locators, DomWaits.VISIBLE, timeout);
+        if (found != null) {
+            return found;
+        }
+        return new WebDriverWait(driver, remaining(deadline))
+                .until(new ExpectedCondition<List<WebElement>>() {
+                    @Override
+                    public List<WebElement> apply(WebDriver d) {
+                        List<WebElement> visible = new ArrayList<>();
+                        for (By locator : locators) {
+                            WebElement element = ExpectedConditions.visibilityOfElementLocated(locator).apply(d);
+                            if (element == null) {
+                                return null;
+                            }
+                            visible.add(element);
+                        }
+                        return visible;
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "visibility of all elements located by " + locators;
+                    }
+                });
+    }
+
     /**
      * Waits for the element to be clickable using default timeout.
      */
@@ -91,7 +184,13 @@ public final class WaitUtils {
      * @return clickable {@link WebElement}
      */
     public static WebElement waitForClickable(WebDriver driver, By locator, long timeoutSeconds) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds))
+        Duration timeout = ScenarioDeadline.cap(timeoutSeconds);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<WebElement> found = DomWaits.await(driver, List.of(locator), DomWaits.CLICKABLE, timeout);
+        if (found != null) {
+            return found.get(0);
+        }
+        return new WebDriverWait(driver, remaining(deadline))
                 .until(ExpectedConditions.elementToBeClickable(locator));
     }
 
@@ -109,17 +208,31 @@ public final class WaitUtils {
      * @return true if invisible before timeout, false otherwise
      */
     public static boolean waitForInvisibility(WebDriver driver, By locator, long timeoutSeconds) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds))
+        Duration timeout = ScenarioDeadline.cap(timeoutSeconds);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (DomWaits.await(driver, List.of(locator), DomWaits.INVISIBLE, timeout) != null) {
+            return true;
+        }
+        return new WebDriverWait(driver, remaining(deadline))
                 .until(ExpectedConditions.invisibilityOfElementLocated(locator));
     }
 
+    /**
+     * Time left until {@code deadlineNanos}; zero once it has passed, so the fallback wait checks
+     * its condition once before timing out.
+     */
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
     /**
      * Creates a FluentWait with defaults for timeout, polling, and ignored exceptions.
      * Use this when you need a custom expected condition or polling strategy.
+     * Note: this always polls over the wire; prefer the element waits above where they fit.
      */
     public static FluentWait<WebDriver> fluentWait(WebDriver driver) {
         return new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
+                .withTimeout(ScenarioDeadline.cap(DEFAULT_TIMEOUT_SECONDS))
                 .pollingEvery(Duration.ofMillis(DEFAULT_POLL_MILLIS))
                 .ignoring(NoSuchElementException.class);
     }
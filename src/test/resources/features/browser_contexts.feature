@@ -0,0 +1,26 @@
+Feature: Browser context isolation
+
+  As a tester
+  I want every scenario session to have its own cookies and storage
+  So that scenarios sharing a browser process (driver.contexts.per.browser) cannot affect each other
+
+  Runs with testng-contexts.xml, e.g. -Dbrowser=chrome -Ddriver.contexts.per.browser=4; the
+  scenarios are skipped when sessions do not share browser processes.
+
+  Background:
+    Given Chrome sessions share browser processes
+    And user is on SauceDemo login page
+    And a second browser session is open on the SauceDemo login page
+
+  @contexts @nosnapshot
+  Scenario: Cookies and local storage do not leak between browser contexts
+    When the first session stores a cookie and a local storage entry
+    Then the second session should not see the cookie or the local storage entry
+
+  @contexts @nosnapshot
+  Scenario: A reused pooled session gets a fresh context and leaves other contexts alone
+    Given the first session stores a cookie and a local storage entry
+    And the second session stores a cookie and a local storage entry
+    When the first session is returned to the pool and leased again
+    Then the first session should not see the cookie or the local storage entry
+    And the second session should still see its cookie and local storage entry
@@ -1,10 +1,12 @@
+@fastauth
 Feature: Checkout flow
 
   As a customer
   I want to add a product to cart and checkout
   So that I can purchase items successfully
 
-  @regression
+  # Logs in and adds to cart through the UI, so the journey keeps one scenario without shortcuts
+  @regression @uilogin
   Scenario Outline: User adds a product and proceeds to checkout overview
     Given user is on SauceDemo login page
     When user logs in with username "<username>" and password "<password>"
@@ -18,7 +20,7 @@ Feature: Checkout flow
       | standard_user  | secret_sauce  | Sauce Labs Backpack   | John      | Doe      | 12345      |
       | standard_user  | secret_sauce  | Sauce Labs Bike Light | Jane      | Smith    | 90210      |
 
-  @smoke
+  @smoke @seedcart
   Scenario: Validation message appears when mandatory info is missing
     Given user is on SauceDemo login page
     When user logs in with username "standard_user" and password "secret_sauce"
@@ -27,7 +29,7 @@ Feature: Checkout flow
     And user enters first name "" last name "Doe" postal code "12345" and continues
     Then checkout info error should be "Error: First Name is required"
 
-  @regression
+  @regression @seedcart
   Scenario: Complete checkout and verify Thank You page
     Given user is on SauceDemo login page
     When user logs in with username "standard_user" and password "secret_sauce"
@@ -1,3 +1,4 @@
+@fastauth
 Feature: Inventory sorting
 
   As a user
@@ -12,9 +13,14 @@ Feature: Inventory sorting
     And user sorts products by "<sort>"
     Then products should be sorted by "<sort>"
 
+    # Logs in through the UI, so the journey keeps one scenario without the login shortcut
+    @uilogin
     Examples:
       | username      | password     | sort                  |
       | standard_user | secret_sauce | Name (A to Z)         |
+
+    Examples:
+      | username      | password     | sort                  |
       | standard_user | secret_sauce | Name (Z to A)         |
       | standard_user | secret_sauce | Price (low to high)   |
       | standard_user | secret_sauce | Price (high to low)   |
@@ -1,3 +1,4 @@
+@uilogin
 Feature: Login functionality
 
   As a user
@@ -21,3 +22,11 @@ Feature: Login functionality
     Given user is on SauceDemo login page
     When user logs in with username "locked_out_user" and password "secret_sauce"
     Then error message should be "Epic sadface: Sorry, this user has been locked out."
+
+  @perf
+  Scenario: Login and inventory pages load within performance budget
+    Given user is on SauceDemo login page
+    Then page performance should be within budget
+    When user logs in with username "standard_user" and password "secret_sauce"
+    Then inventory page should be displayed
+    And page performance should be within budget
@@ -0,0 +1,15 @@
+Feature: Network fixtures
+
+  As a tester
+  I want selected third-party requests answered from local fixture files
+  So that scenarios do not depend on (or report to) services outside the application
+
+  Runs with -Dbrowser=chrome -Dnetwork.profile=fixtures (or lean/strict) -Dcucumber.filter.tags=@network;
+  the scenario is skipped when requests are not intercepted.
+
+  @network @nosnapshot
+  Scenario: Error reports are acknowledged by the local fixture
+    Given network fixtures are served
+    And user is on SauceDemo login page
+    When the page sends an error report to Backtrace
+    Then the error report should be acknowledged by the "backtrace-ok.json" fixture
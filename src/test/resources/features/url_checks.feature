@@ -1,3 +1,4 @@
+@fastauth
 Feature: Page URL checks
 
   As a tester
@@ -7,20 +8,21 @@ Feature: Page URL checks
   @smoke
   Scenario: Login page URL is correct
     Given user is on SauceDemo login page
-    Then current page URL should be "https://www.saucedemo.com/"
+    Then current page URL should be "/"
 
-  @regression
+  # Logs in through the UI, so the redirect after a real login stays covered
+  @regression @uilogin
   Scenario: Inventory page URL is correct after login
     Given user is on SauceDemo login page
     When user logs in with username "standard_user" and password "secret_sauce"
-    Then current page URL should be "https://www.saucedemo.com/inventory.html"
+    Then current page URL should be "/inventory.html"
 
   @regression
   Scenario: Intentional failure - wrong inventory URL to show screenshot
     Given user is on SauceDemo login page
     When user logs in with username "standard_user" and password "secret_sauce"
     # This expected URL is intentionally incorrect to demonstrate failure and screenshot capture
-    Then current page URL should be "https://www.saucedemo.com/inventory"
+    Then current page URL should be "/inventory"
 
   @regression
   Scenario: Intentional failure - wrong cart URL to show screenshot
@@ -28,6 +30,6 @@ Feature: Page URL checks
     When user logs in with username "standard_user" and password "secret_sauce"
     And user opens the cart page
     # This expected URL is intentionally incorrect to demonstrate failure and screenshot capture
-    Then current page URL should be "https://www.saucedemo.com/cart"
+    Then current page URL should be "/cart"
 
 